@@ -7,7 +7,7 @@ import com.google.inject.Injector;
  */
 public final class GuiceInjector {
 
-    private static final String KEY = Constantes.KEY_PROP_GUICE_INJECTOR;
+    private static final MemoryStorage.Key<Injector> KEY = MemoryStorage.Key.of(Constantes.KEY_PROP_GUICE_INJECTOR, Injector.class);
 
     /**
      * Recupera o {@code Injetor} do Guice utilizado pela aplicação.
@@ -15,7 +15,7 @@ public final class GuiceInjector {
      * @return {@code Injetor} do Guice utilizado pela aplicação
      */
     public static Injector get() {
-        return (Injector) MemoryStorage.get(KEY);
+        return MemoryStorage.get(KEY);
     }
 
     /**
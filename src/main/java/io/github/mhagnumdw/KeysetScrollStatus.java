@@ -0,0 +1,59 @@
+package io.github.mhagnumdw;
+
+/**
+ * Controlar a navegação com paginação por chave (<i>keyset</i> / <i>seek</i>), contraparte de {@link PaginationScrollStatus}.
+ * <p>
+ * Não há total de registros nem número de página: a navegação é feita apenas pelos cursores opacos {@link #getProximoCursor()} e
+ * {@link #getCursorAnterior()}, que devem ser devolvidos como estão na próxima busca.
+ * </p>
+ *
+ * @see io.github.mhagnumdw.dao.DAO#getPagedByKeyset(Class, java.util.Map, java.util.Map, String, int)
+ */
+public class KeysetScrollStatus {
+
+    private final int pageSize;
+    private final String proximoCursor;
+    private final String cursorAnterior;
+
+    /**
+     * Inicializa um novo objeto {@code KeysetScrollStatus}.
+     *
+     * @param pageSize
+     *            quantidade de registros exibidos por página
+     * @param proximoCursor
+     *            cursor da próxima página, {@code null} se não houver
+     * @param cursorAnterior
+     *            cursor da página anterior, {@code null} se não houver
+     */
+    public KeysetScrollStatus(int pageSize, String proximoCursor, String cursorAnterior) {
+        this.pageSize = pageSize;
+        this.proximoCursor = proximoCursor;
+        this.cursorAnterior = cursorAnterior;
+    }
+
+    public String getProximoCursor() {
+        return proximoCursor;
+    }
+
+    public String getCursorAnterior() {
+        return cursorAnterior;
+    }
+
+    public boolean hasProximaPagina() {
+        return proximoCursor != null;
+    }
+
+    public boolean hasPaginaAnterior() {
+        return cursorAnterior != null;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    @Override
+    public String toString() {
+        return "Page size: " + pageSize + " [anterior: " + cursorAnterior + ", próximo: " + proximoCursor + "]";
+    }
+
+}
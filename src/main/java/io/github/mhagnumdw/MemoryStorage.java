@@ -1,78 +1,229 @@
 package io.github.mhagnumdw;
 
-import java.util.HashMap;
 import java.util.Map;
-
-import org.apache.commons.lang3.StringUtils;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Singleton que carrega em memória diversos objetos para o funcionamento da aplicação.
+ * <p>
+ * As chaves são tipadas ({@link Key}), dispensando cast. Leituras não usam lock ({@link ConcurrentHashMap}) e as métricas usam {@link LongAdder},
+ * então não há disputa mesmo com muitas requisições simultâneas. Cada chave pode ter um tempo de vida (TTL) e o total de entradas é limitado a
+ * {@link #MAX_SIZE}: acima disso as expiradas e, se preciso, as mais antigas com TTL são removidas. Entradas sem TTL (ex.: o {@code Injector} do Guice)
+ * nunca são removidas automaticamente.
+ * </p>
  */
-public class MemoryStorage {
+public final class MemoryStorage {
 
-    private static HashMap<String, Object> instance = null;
+    /**
+     * Quantidade máxima de entradas.
+     */
+    public static final int MAX_SIZE = 1024;
 
-    private static Map<String, Object> getInstance() {
-        if (instance == null) {
-            synchronized (MemoryStorage.class) {
-                if (instance == null) {
-                    instance = new HashMap<String, Object>();
-                }
-            }
-        }
-        return instance;
+    private static final long NO_EXPIRATION = Long.MAX_VALUE;
+
+    private static final ConcurrentHashMap<Key<?>, Entry> ENTRIES = new ConcurrentHashMap<>();
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+    private static final LongAdder EXPIRATIONS = new LongAdder();
+    private static final LongAdder EVICTIONS = new LongAdder();
+
+    private MemoryStorage() {
     }
 
     /**
-     * Adiciona uma chave/valor ao mapa {@link #instance}.
+     * Adiciona uma chave/valor, substituindo o valor anterior da chave.
      *
      * @param key
      *            chave
      * @param value
-     *            valor
+     *            valor, não pode ser nulo
      */
-    public static void put(String key, Object value) {
-        getInstance().put(key, value);
+    public static <T> void put(Key<T> key, T value) {
+        Objects.requireNonNull(value, "value");
+        final long expiresAt = key.ttlNanos == NO_EXPIRATION ? NO_EXPIRATION : System.nanoTime() + key.ttlNanos;
+        ENTRIES.put(key, new Entry(value, expiresAt, SEQUENCE.incrementAndGet()));
+        if (ENTRIES.size() > MAX_SIZE) {
+            evict();
+        }
     }
 
     /**
-     * Remove uma chave (e seu valor) do mapa.
+     * Remove uma chave (e seu valor).
      *
      * @param key
      *            chave
      */
-    public static void remove(String key) {
-        if (StringUtils.isNotBlank(key)) {
-            getInstance().remove(key);
-        }
+    public static void remove(Key<?> key) {
+        ENTRIES.remove(key);
     }
 
     /**
-     * Retorna um valor do mapa {@link #instance} com base na chave especificada.
+     * Retorna o valor da chave.
      *
      * @param key
      *            chave
-     * @return valor da chave
+     * @return valor da chave ou {@code null} se não existir ou tiver expirado
      */
-    public static Object get(String key) {
-        return getInstance().get(key);
+    public static <T> T get(Key<T> key) {
+        final Entry entry = ENTRIES.get(key);
+        if (entry == null) {
+            MISSES.increment();
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            if (ENTRIES.remove(key, entry)) {
+                EXPIRATIONS.increment();
+            }
+            MISSES.increment();
+            return null;
+        }
+        HITS.increment();
+        return key.type.cast(entry.value);
+    }
+
+    public static int size() {
+        return ENTRIES.size();
+    }
+
+    public static long getHits() {
+        return HITS.sum();
+    }
+
+    public static long getMisses() {
+        return MISSES.sum();
+    }
+
+    public static long getExpirations() {
+        return EXPIRATIONS.sum();
+    }
+
+    public static long getEvictions() {
+        return EVICTIONS.sum();
+    }
+
+    public static String stats() {
+        return "MemoryStorage [size=" + size() + ", hits=" + getHits() + ", misses=" + getMisses() + ", expirations=" + getExpirations() + ", evictions="
+                + getEvictions() + "]";
     }
 
     /**
-     * Retorna um valor do mapa {@link #instance} com base na chave especificada.
-     * <p>
-     * Força um cast para {@code T}, logo pode surgir um {@link ClassCastException}.
-     * </p>
-     *
-     * @param key
-     *            chave
-     * @param typeOfT
-     *            tipo do retorno (vai forçar um cast)
+     * Remove as entradas expiradas e, se ainda acima de {@link #MAX_SIZE}, as mais antigas com TTL. Só é chamado quando o limite é ultrapassado.
+     */
+    private static synchronized void evict() {
+        final long now = System.nanoTime();
+        for (Map.Entry<Key<?>, Entry> e : ENTRIES.entrySet()) {
+            if (e.getValue().isExpired(now) && ENTRIES.remove(e.getKey(), e.getValue())) {
+                EXPIRATIONS.increment();
+            }
+        }
+        while (ENTRIES.size() > MAX_SIZE) {
+            Map.Entry<Key<?>, Entry> oldest = null;
+            for (Map.Entry<Key<?>, Entry> e : ENTRIES.entrySet()) {
+                if (e.getValue().expiresAt != NO_EXPIRATION && (oldest == null || e.getValue().sequence < oldest.getValue().sequence)) {
+                    oldest = e;
+                }
+            }
+            if (oldest == null) {
+                return; // apenas entradas sem TTL
+            }
+            if (ENTRIES.remove(oldest.getKey(), oldest.getValue())) {
+                EVICTIONS.increment();
+            }
+        }
+    }
+
+    /**
+     * Chave tipada do {@link MemoryStorage}. Duas chaves são iguais se tiverem o mesmo nome e o mesmo tipo.
      *
-     * @return valor da chave
+     * @param <T>
+     *            tipo do valor
      */
-    public static <T> T get(String key, Class<T> typeOfT) {
-        return (T) getInstance().get(key);
+    public static final class Key<T> {
+
+        private final String name;
+
+        private final Class<T> type;
+
+        private final long ttlNanos;
+
+        private Key(String name, Class<T> type, long ttlNanos) {
+            this.name = Objects.requireNonNull(name, "name");
+            this.type = Objects.requireNonNull(type, "type");
+            this.ttlNanos = ttlNanos;
+        }
+
+        /**
+         * Cria uma chave sem expiração.
+         */
+        public static <T> Key<T> of(String name, Class<T> type) {
+            return new Key<>(name, type, NO_EXPIRATION);
+        }
+
+        /**
+         * Cria uma chave cujos valores expiram {@code ttl} após o {@link MemoryStorage#put(Key, Object)}.
+         */
+        public static <T> Key<T> of(String name, Class<T> type, long ttl, TimeUnit unit) {
+            if (ttl <= 0) {
+                throw new IllegalArgumentException("ttl deve ser positivo: " + ttl);
+            }
+            return new Key<>(name, type, unit.toNanos(ttl));
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Class<T> getType() {
+            return type;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * name.hashCode() + type.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            Key<?> other = (Key<?>) obj;
+            return name.equals(other.name) && type == other.type;
+        }
+
+        @Override
+        public String toString() {
+            return name + "<" + type.getSimpleName() + ">";
+        }
+
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+
+        private final long expiresAt;
+
+        private final long sequence;
+
+        Entry(Object value, long expiresAt, long sequence) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.sequence = sequence;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAt != NO_EXPIRATION && now - expiresAt >= 0;
+        }
+
     }
 
 }
@@ -0,0 +1,129 @@
+package io.github.mhagnumdw;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.persist.PersistService;
+
+import io.github.mhagnumdw.boot.BootReport;
+import io.github.mhagnumdw.boot.CsvSeedLoader;
+import io.github.mhagnumdw.boot.SchemaSnapshot;
+import io.github.mhagnumdw.dao.NegativeLookupCache;
+import io.github.mhagnumdw.helper.EntityMetadataRegistry;
+
+/**
+ * Inicialização da persistência (JPA) e do que depende dela: carga dos dados iniciais ({@link CsvSeedLoader}), snapshot do schema
+ * ({@link SchemaSnapshot}), metadados das entidades e {@link NegativeLookupCache}.
+ * <p>
+ * No modo paralelo a unidade de persistência (criação da SessionFactory, do schema e importação do load.sql) e o cálculo dos metadados das
+ * entidades rodam em segundo plano, ao mesmo tempo que o Pippo inicializa (Jetty, template engine, rotas). O
+ * {@link PippoApplication#onInit()} aguarda ({@link #awaitStarted()}) antes de terminar, então a porta HTTP só abre com tudo pronto.
+ * </p>
+ *
+ * <pre>
+ * app.boot.parallel : se true a persistência inicia em paralelo com o Pippo (default: false)
+ * </pre>
+ */
+@Singleton
+public class PersistenceBootstrap {
+
+    private static final Logger log = LoggerFactory.getLogger(PersistenceBootstrap.class);
+
+    public static final String PROP_PARALLEL = "app.boot.parallel";
+
+    @Inject
+    private PersistService service;
+
+    @Inject
+    private NegativeLookupCache negativeLookupCache;
+
+    @Inject
+    private SchemaSnapshot schemaSnapshot;
+
+    @Inject
+    private CsvSeedLoader csvSeedLoader;
+
+    private CompletableFuture<Void> started;
+
+    public static boolean isParallel() {
+        return Boolean.getBoolean(PROP_PARALLEL);
+    }
+
+    /**
+     * Inicia a persistência em segundo plano. Chamadas seguintes não fazem nada.
+     */
+    public synchronized void startAsync() {
+        if (started != null) {
+            return;
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(2, new ThreadFactoryBuilder().setDaemon(true).setNameFormat("boot-%d").build());
+        final CompletableFuture<Void> persistence = CompletableFuture.runAsync(this::startPersistence, executor).thenRun(this::loadNegativeLookupCache);
+        final CompletableFuture<Void> metadata = CompletableFuture.runAsync(PersistenceBootstrap::primeMetadata, executor);
+        started = CompletableFuture.allOf(persistence, metadata);
+        started.whenComplete((result, error) -> executor.shutdown());
+    }
+
+    /**
+     * Aguarda a inicialização iniciada por {@link #startAsync()} ou, se não foi iniciada, inicializa na thread corrente.
+     *
+     * @throws RuntimeException
+     *             erro da inicialização
+     */
+    public void awaitStarted() {
+        final CompletableFuture<Void> future;
+        synchronized (this) {
+            if (started == null) {
+                startPersistence();
+                primeMetadata();
+                loadNegativeLookupCache();
+                started = CompletableFuture.completedFuture(null);
+                return;
+            }
+            future = started;
+        }
+        final Stopwatch stopwatch = Stopwatch.createStarted();
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        log.info("Persistência pronta (aguardou {} ms)", stopwatch.elapsed(TimeUnit.MILLISECONDS));
+    }
+
+    private void startPersistence() {
+        // http://docs.jboss.org/hibernate/orm/5.2/topical/html_single/logging/Logging.html
+        System.setProperty("org.jboss.logging.provider", "slf4j"); // Necessário para o Hibernate quando se usa o slf4j
+
+        log.info("Starting Persistence Unit (JPA)");
+        final Stopwatch stopwatch = Stopwatch.createStarted();
+        BootReport.time(BootReport.PERSISTENCE, service::start); // start persistence unit (JPA)
+        if (schemaSnapshot.isSchemaCreated()) {
+            // banco novo: carrega os CSV antes de gravar o snapshot, assim uma carga que falhe é refeita na próxima inicialização
+            BootReport.time(BootReport.SEED, csvSeedLoader::load);
+        }
+        schemaSnapshot.save();
+        log.info("Persistence Unit (JPA) iniciada em {} ms", stopwatch.elapsed(TimeUnit.MILLISECONDS));
+    }
+
+    private static void primeMetadata() {
+        BootReport.time(BootReport.METADATA, EntityMetadataRegistry::prime);
+    }
+
+    private void loadNegativeLookupCache() {
+        BootReport.time(BootReport.NEGATIVE_LOOKUP, negativeLookupCache::load);
+    }
+
+}
@@ -7,8 +7,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.inject.Inject;
-import com.google.inject.persist.PersistService;
 
+import io.github.mhagnumdw.boot.BootReport;
+import io.github.mhagnumdw.cache.CacheWarmer;
 import io.github.mhagnumdw.filter.PersistFilter;
 import ro.pippo.controller.Controller;
 import ro.pippo.controller.ControllerApplication;
@@ -22,8 +23,19 @@ public class PippoApplication extends ControllerApplication {
 
     private static final Logger log = LoggerFactory.getLogger(PippoApplication.class);
 
+    /**
+     * Entidades (nome completo da classe, separadas por vírgula) pré-carregadas no cache de segundo nível na inicialização.
+     */
+    public static final String PROP_CACHE_WARMUP_ENTITIES = "cache.warmup.entities";
+
+    @Inject
+    private PersistenceBootstrap persistenceBootstrap;
+
+    @Inject
+    private CacheWarmer cacheWarmer;
+
     @Inject
-    private PersistService service;
+    private PersistFilter persistFilter;
 
 //    @Inject
 //    private NotaService notaService;
@@ -38,12 +50,12 @@ public class PippoApplication extends ControllerApplication {
     protected void onInit() {
         log.info("onInit()");
 
-        // http://docs.jboss.org/hibernate/orm/5.2/topical/html_single/logging/Logging.html
-        System.setProperty("org.jboss.logging.provider", "slf4j"); // Necessário para o Hibernate quando se usa o slf4j
+        // PERSISTENCE - no modo paralelo segue iniciando enquanto as rotas são registradas (normalmente já foi iniciada pelo PippoLauncher)
+        if (PersistenceBootstrap.isParallel()) {
+            persistenceBootstrap.startAsync();
+        }
 
-        // PERSISTENCE
-        log.info("Starting Persistence Unit (JPA)");
-        service.start(); // start persistence unit (JPA)
+        BootReport.begin(BootReport.ROUTES);
 
         // ENDPOINT / API
         // setControllerFactory(new GuiceControllerFactory(injector)); // registrando GuiceControllerFactory
@@ -56,12 +68,20 @@ public class PippoApplication extends ControllerApplication {
         // ****** FILTER's - A Ordem É Relevante! ***********************************
         // **************************************************************************
 
-        ANY("/webapp/api/.*", PersistFilter.BEGIN);
+        // abre e fecha (finally) o UnitOfWork em volta do restante da cadeia; no modo lazy só fecha, se aberto, então pode cobrir todas as rotas
+        ANY(persistFilter.getUriPattern(), persistFilter);
 
         addControllers(controllers.toArray(new Controller[0]));
 
-        // Cleanup - Deve ser realmente a última chamada do método onInit() e "/.*"
-        ANY("/webapp/api/.*", PersistFilter.END).runAsFinally();
+        BootReport.end(BootReport.ROUTES);
+
+        // PERSISTENCE - aguarda (ou, fora do modo paralelo, executa) a inicialização
+        persistenceBootstrap.awaitStarted();
+
+        // CACHE - roda antes do servidor (Jetty) abrir a porta, pois o onInit() é chamado na inicialização do contexto
+        BootReport.time(BootReport.CACHE_WARMUP, () -> cacheWarmer.warmUp(getPippoSettings().getStrings(PROP_CACHE_WARMUP_ENTITIES)));
+
+        BootReport.begin(BootReport.JETTY); // encerrada no PippoLauncher, quando o servidor já aceita conexões
 
     }
 
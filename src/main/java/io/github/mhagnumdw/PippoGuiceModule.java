@@ -8,9 +8,17 @@ import com.google.inject.Scopes;
 import com.google.inject.TypeLiteral;
 import com.google.inject.multibindings.Multibinder;
 import com.google.inject.multibindings.OptionalBinder;
+import com.google.inject.matcher.Matchers;
 
+import io.github.mhagnumdw.boot.BootReport;
+import io.github.mhagnumdw.boot.TimedFreemarkerTemplateEngine;
+import io.github.mhagnumdw.dao.BloomNegativeLookupCache;
 import io.github.mhagnumdw.dao.DAO;
 import io.github.mhagnumdw.dao.GeneralDAO;
+import io.github.mhagnumdw.dao.NegativeLookupCache;
+import io.github.mhagnumdw.dao.ReadOnly;
+import io.github.mhagnumdw.service.ReadOnlyInterceptor;
+import io.github.mhagnumdw.service.Service;
 import io.github.mhagnumdw.util.ScanUtils;
 import ro.pippo.controller.Controller;
 import ro.pippo.controller.ControllerFactory;
@@ -36,7 +44,6 @@ import ro.pippo.core.route.Router;
 import ro.pippo.core.util.HttpCacheToolkit;
 import ro.pippo.core.util.MimeTypes;
 import ro.pippo.core.websocket.WebSocketRouter;
-import ro.pippo.freemarker.FreemarkerTemplateEngine;
 import ro.pippo.jetty.JettyServer;
 
 /**
@@ -49,10 +56,16 @@ public final class PippoGuiceModule extends AbstractModule {
         System.out.println("Start guice module configure");
 
         bind(DAO.class).to(GeneralDAO.class);
+        bind(NegativeLookupCache.class).to(BloomNegativeLookupCache.class);
+
+        // métodos @ReadOnly dos Services
+        final ReadOnlyInterceptor readOnlyInterceptor = new ReadOnlyInterceptor();
+        requestInjection(readOnlyInterceptor);
+        bindInterceptor(Matchers.subclassesOf(Service.class), Matchers.annotatedWith(ReadOnly.class), readOnlyInterceptor);
 
         bind(Application.class).to(PippoApplication.class).asEagerSingleton();
         // bind(Router.class).to(CustomRouter.class).in(Scopes.SINGLETON);
-        bind(TemplateEngine.class).to(FreemarkerTemplateEngine.class).asEagerSingleton();
+        bind(TemplateEngine.class).to(TimedFreemarkerTemplateEngine.class).asEagerSingleton();
         bind(WebServer.class).to(JettyServer.class).in(Scopes.SINGLETON);
 
         bind(Pippo.class);
@@ -93,7 +106,7 @@ public final class PippoGuiceModule extends AbstractModule {
     private void bindControllers() {
         // retrieve controller classes
         // Set<Class<? extends Controller>> controllers = ScanUtils.getSubTypesOf(Controller.class);
-        Set<Class<? extends Controller>> controllers = ScanUtils.getSubTypesOfAnnotatedWith(Controller.class, Path.class);
+        Set<Class<? extends Controller>> controllers = BootReport.time(BootReport.SCAN, () -> ScanUtils.getSubTypesOfAnnotatedWith(Controller.class, Path.class));
 
         // bind found controllers
         Multibinder<Controller> multibinder = Multibinder.newSetBinder(binder(), Controller.class);
@@ -7,16 +7,40 @@ import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.google.inject.persist.jpa.JpaPersistModule;
 
+import io.github.mhagnumdw.boot.BootReport;
+import io.github.mhagnumdw.boot.SchemaSnapshot;
 import ro.pippo.core.Pippo;
+import ro.pippo.core.PippoSettings;
 
 public class PippoLauncher {
 
     private static final Logger log = LoggerFactory.getLogger(PippoLauncher.class);
 
+    private static final String PROP_METRICS_MBEANS_ENABLED = "metrics.mbeans.enabled";
+
+    /**
+     * Tempo máximo (ms) da inicialização, do início da JVM até aceitar conexões; 0 desliga a verificação.
+     */
+    public static final String PROP_BOOT_BUDGET_MILLIS = "boot.budget.millis";
+
+    /**
+     * Se true, a aplicação é parada quando {@link #PROP_BOOT_BUDGET_MILLIS} é ultrapassado; senão apenas registra um aviso.
+     */
+    public static final String PROP_BOOT_BUDGET_FAIL = "boot.budget.fail";
+
     /**
      * Método principal que inicia a aplicação no modo standalone.
      */
     public static void main(String[] args) {
+        checkBootBudget(start());
+    }
+
+    /**
+     * Inicia a aplicação, sem verificar o limite de tempo da inicialização.
+     *
+     * @return o {@link Pippo} já aceitando conexões
+     */
+    public static Pippo start() {
         log.info("Iniciando aplicação ...");
 
         // TODO: tornar o enable/disable disso via aplicação (talvez na tela Sistema > Admin)
@@ -27,14 +51,50 @@ public class PippoLauncher {
         // System.setProperty("com.sun.xml.ws.transport.http.HttpAdapter.dump", "true");
         // System.setProperty("com.sun.xml.internal.ws.transport.http.HttpAdapter.dump", "true");
 
-        Injector injector = Guice.createInjector(new PippoGuiceModule(), new JpaPersistModule(Constantes.PU_NAME));
+        final SchemaSnapshot snapshot = BootReport.time(BootReport.SNAPSHOT, () -> SchemaSnapshot.check(Constantes.PU_NAME));
+        final JpaPersistModule jpaModule = new JpaPersistModule(Constantes.PU_NAME).properties(snapshot.getPersistenceProperties());
+
+        // @formatter:off
+        Injector injector = BootReport.time(BootReport.INJECTOR, () -> Guice.createInjector(
+                new PippoGuiceModule(),
+                jpaModule,
+                binder -> binder.bind(SchemaSnapshot.class).toInstance(snapshot)));
+        // @formatter:on
 
         GuiceInjector.set(injector);
+
+        if (PersistenceBootstrap.isParallel()) {
+            // JPA inicia enquanto o Pippo sobe; o PippoApplication.onInit() aguarda antes da porta HTTP abrir
+            injector.getInstance(PersistenceBootstrap.class).startAsync();
+        }
+
         Pippo pippo = injector.getInstance(Pippo.class);
 
         pippo.start();
+        BootReport.end(BootReport.JETTY);
 
         log.info("Aplicação iniciada!");
+
+        return pippo;
+    }
+
+    /**
+     * Imprime o {@link BootReport} e compara o tempo total com {@value #PROP_BOOT_BUDGET_MILLIS}. Acima do limite registra um aviso ou, se
+     * {@value #PROP_BOOT_BUDGET_FAIL}, para a aplicação (útil para barrar regressões num smoke test do deploy).
+     */
+    private static void checkBootBudget(Pippo pippo) {
+        final PippoSettings settings = pippo.getApplication().getPippoSettings();
+        final long totalMillis = BootReport.finish(settings.getBoolean(PROP_METRICS_MBEANS_ENABLED, false));
+        final long budgetMillis = settings.getLong(PROP_BOOT_BUDGET_MILLIS, 0);
+        if (budgetMillis <= 0 || totalMillis <= budgetMillis) {
+            return;
+        }
+        final String message = "Inicialização levou " + totalMillis + " ms, acima do limite de " + budgetMillis + " ms (" + PROP_BOOT_BUDGET_MILLIS + ")";
+        if (settings.getBoolean(PROP_BOOT_BUDGET_FAIL, false)) {
+            pippo.stop();
+            throw new IllegalStateException(message);
+        }
+        log.warn(message);
     }
 
 }
@@ -0,0 +1,204 @@
+package io.github.mhagnumdw.boot;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Coletor dos tempos das fases da inicialização da aplicação.
+ * <p>
+ * As fases podem rodar em threads diferentes e em paralelo ({@link io.github.mhagnumdw.PersistenceBootstrap}); por isso cada uma guarda o
+ * instante de início (relativo ao início da JVM) e a duração. Uma fase registrada mais de uma vez acumula a duração. Ao final,
+ * {@link #finish(boolean)} imprime o relatório e, opcionalmente, o expõe via JMX ({@link BootReportMXBean}).
+ * </p>
+ *
+ * <pre>
+ * Fases registradas:
+ *
+ * snapshot       : verificação do snapshot do schema (SchemaSnapshot)
+ * injector       : Guice.createInjector (PippoLauncher)
+ * scan           : leitura do índice de classes / Reflections, medida em quem chama o ScanUtils na inicialização (controllers, metadata,
+ *                  snapshot), portanto também contada dentro dessas fases
+ * persistence    : PersistService.start, inclui schema e load.sql
+ * schema         : criação do schema (hbm2ddl)
+ * load.sql       : importação do load.sql
+ * seed           : carga dos CSV (CsvSeedLoader)
+ * metadata       : EntityMetadataRegistry.prime
+ * negative-lookup: carga do NegativeLookupCache
+ * template       : inicialização do Freemarker
+ * routes         : registro das rotas e controllers (PippoApplication.onInit)
+ * cache-warmup   : pré-carga do cache de segundo nível
+ * jetty          : do fim do onInit até o servidor aceitar conexões
+ * </pre>
+ */
+public final class BootReport {
+
+    private static final Logger log = LoggerFactory.getLogger(BootReport.class);
+
+    public static final String SNAPSHOT = "snapshot";
+    public static final String INJECTOR = "injector";
+    public static final String SCAN = "scan";
+    public static final String PERSISTENCE = "persistence";
+    public static final String SCHEMA = "schema";
+    public static final String IMPORT = "load.sql";
+    public static final String SEED = "seed";
+    public static final String METADATA = "metadata";
+    public static final String NEGATIVE_LOOKUP = "negative-lookup";
+    public static final String TEMPLATE = "template";
+    public static final String ROUTES = "routes";
+    public static final String CACHE_WARMUP = "cache-warmup";
+    public static final String JETTY = "jetty";
+
+    static final String OBJECT_NAME = "io.github.mhagnumdw:type=BootReport";
+
+    /**
+     * {@link System#nanoTime()} correspondente ao início da JVM.
+     */
+    private static final long JVM_START_NANOS = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(ManagementFactory.getRuntimeMXBean().getUptime());
+
+    /** Guarded by BootReport.class */
+    private static final Map<String, Phase> PHASES = new LinkedHashMap<>();
+
+    /** Guarded by BootReport.class */
+    private static final Map<String, Long> RUNNING = new LinkedHashMap<>();
+
+    private static volatile long totalMillis = -1;
+
+    private BootReport() {
+    }
+
+    /**
+     * Inicia a fase {@code name}; deve ser encerrada com {@link #end(String)}, podendo ser em outro método ou thread.
+     */
+    public static synchronized void begin(String name) {
+        RUNNING.put(name, System.nanoTime());
+    }
+
+    /**
+     * Encerra a fase {@code name} iniciada com {@link #begin(String)}. Não faz nada se a fase não foi iniciada.
+     *
+     * @return {@code true} se a fase estava iniciada
+     */
+    public static boolean end(String name) {
+        final long now = System.nanoTime();
+        final Long start;
+        synchronized (BootReport.class) {
+            start = RUNNING.remove(name);
+        }
+        if (start == null) {
+            return false;
+        }
+        record(name, start, now - start);
+        return true;
+    }
+
+    /**
+     * Executa {@code action} registrando o tempo como a fase {@code name}.
+     */
+    public static void time(String name, Runnable action) {
+        final long start = System.nanoTime();
+        try {
+            action.run();
+        } finally {
+            record(name, start, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Executa {@code action} registrando o tempo como a fase {@code name}.
+     */
+    public static <T> T time(String name, Supplier<T> action) {
+        final long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            record(name, start, System.nanoTime() - start);
+        }
+    }
+
+    private static synchronized void record(String name, long startNanos, long durationNanos) {
+        final Phase phase = PHASES.get(name);
+        if (phase == null) {
+            PHASES.put(name, new Phase(startNanos - JVM_START_NANOS, durationNanos));
+        } else {
+            phase.durationNanos += durationNanos;
+        }
+    }
+
+    /**
+     * @return duração (ms) de cada fase, na ordem em que foram registradas
+     */
+    public static synchronized Map<String, Long> getPhaseMillis() {
+        final Map<String, Long> millis = new LinkedHashMap<>();
+        PHASES.forEach((name, phase) -> millis.put(name, TimeUnit.NANOSECONDS.toMillis(phase.durationNanos)));
+        return Collections.unmodifiableMap(millis);
+    }
+
+    /**
+     * @return tempo (ms) do início da JVM até {@link #finish(boolean)} ou -1 se a inicialização não terminou
+     */
+    public static long getTotalMillis() {
+        return totalMillis;
+    }
+
+    /**
+     * Encerra a coleta: registra o tempo total, imprime o relatório e, se {@code registerMBean}, registra o {@link BootReportMXBean}.
+     *
+     * @return tempo total (ms) desde o início da JVM
+     */
+    public static long finish(boolean registerMBean) {
+        totalMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        log.info("{}", report());
+        if (registerMBean) {
+            registerMBean();
+        }
+        return totalMillis;
+    }
+
+    /**
+     * @return relatório das fases, uma por linha
+     */
+    public static synchronized String report() {
+        final StringBuilder sb = new StringBuilder("Boot report - total ").append(totalMillis).append(" ms desde o início da JVM");
+        sb.append(String.format("%n  %-16s %10s %10s", "fase", "início ms", "duração ms"));
+        PHASES.forEach((name, phase) -> sb.append(String.format("%n  %-16s %10d %10d", name, TimeUnit.NANOSECONDS.toMillis(phase.offsetNanos),
+                TimeUnit.NANOSECONDS.toMillis(phase.durationNanos))));
+        return sb.toString();
+    }
+
+    private static void registerMBean() {
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new BootReportMXBean.Impl(), name);
+            }
+        } catch (JMException e) {
+            log.warn("Não foi possível registrar o MBean {}", OBJECT_NAME, e);
+        }
+    }
+
+    private static final class Phase {
+
+        private final long offsetNanos;
+
+        private long durationNanos;
+
+        Phase(long offsetNanos, long durationNanos) {
+            this.offsetNanos = offsetNanos;
+            this.durationNanos = durationNanos;
+        }
+
+    }
+
+}
@@ -0,0 +1,44 @@
+package io.github.mhagnumdw.boot;
+
+import java.util.Map;
+
+/**
+ * Tempos da inicialização expostos via JMX ({@code io.github.mhagnumdw:type=BootReport}), registrado quando {@code metrics.mbeans.enabled = true}.
+ */
+public interface BootReportMXBean {
+
+    /**
+     * @return tempo (ms) do início da JVM até a aplicação aceitar conexões
+     */
+    long getTotalMillis();
+
+    /**
+     * @return duração (ms) de cada fase
+     */
+    Map<String, Long> getPhaseMillis();
+
+    /**
+     * @return relatório das fases
+     */
+    String getReport();
+
+    final class Impl implements BootReportMXBean {
+
+        @Override
+        public long getTotalMillis() {
+            return BootReport.getTotalMillis();
+        }
+
+        @Override
+        public Map<String, Long> getPhaseMillis() {
+            return BootReport.getPhaseMillis();
+        }
+
+        @Override
+        public String getReport() {
+            return BootReport.report();
+        }
+
+    }
+
+}
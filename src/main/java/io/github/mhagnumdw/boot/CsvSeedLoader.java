@@ -0,0 +1,275 @@
+package io.github.mhagnumdw.boot;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.Session;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.DatabaseStructure;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Stopwatch;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+
+/**
+ * Carga em massa de dados iniciais a partir de arquivos CSV, usando o {@code CSVREAD} do H2 ({@code INSERT INTO ... SELECT * FROM CSVREAD(...)}):
+ * cada arquivo vira um único comando, em vez de um INSERT por linha como no load.sql.
+ * <p>
+ * Regras:
+ * <ul>
+ * <li>um arquivo por tabela no diretório {@value #PROP_DIR}: {@code TABELA.csv} ou {@code TABELA.csv.gz}, com cabeçalho (nomes das colunas) e
+ * separados por vírgula em UTF-8;</li>
+ * <li>os arquivos são carregados em ordem alfabética, um prefixo numérico opcional ({@code 01_LABEL.csv}) define a ordem por causa das chaves
+ * estrangeiras;</li>
+ * <li>só carrega quando o {@code hibernate.hbm2ddl.auto} efetivo é {@code create} ou {@code create-drop}, ou seja, quando o banco acabou de ser
+ * criado vazio;</li>
+ * <li>tudo numa única transação: se um arquivo falhar nada é carregado e a inicialização falha;</li>
+ * <li>se o arquivo tem a coluna {@code ID}, o gerador de ids da tabela é reiniciado após o maior id carregado: a sequence da entidade
+ * ({@link io.github.mhagnumdw.entity.PooledSequenceIdGenerator}, arredondada para o incremento) ou a identidade da coluna;</li>
+ * <li>a carga não passa pelo Hibernate, então não aciona listeners nem o cache de segundo nível. Por isso roda antes de
+ * {@link io.github.mhagnumdw.dao.NegativeLookupCache#load()} e da pré-carga do cache.</li>
+ * </ul>
+ * </p>
+ *
+ * <pre>
+ * app.seed.dir : diretório dos arquivos CSV (default: vazio, desligado)
+ * </pre>
+ */
+@Singleton
+public class CsvSeedLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(CsvSeedLoader.class);
+
+    public static final String PROP_DIR = "app.seed.dir";
+
+    private static final String CSV = ".csv";
+    private static final String CSV_GZ = ".csv.gz";
+
+    private final Provider<EntityManagerFactory> emfProvider;
+
+    @Inject
+    CsvSeedLoader(Provider<EntityManagerFactory> emfProvider) {
+        this.emfProvider = emfProvider;
+    }
+
+    /**
+     * @return os arquivos de {@value #PROP_DIR}, na ordem de carga; vazio se desligado
+     */
+    public static List<File> getSeedFiles() {
+        final String dir = System.getProperty(PROP_DIR);
+        if (StringUtils.isBlank(dir)) {
+            return new ArrayList<>();
+        }
+        final File[] files = new File(dir).listFiles(file -> file.isFile() && (file.getName().endsWith(CSV) || file.getName().endsWith(CSV_GZ)));
+        if (files == null) {
+            throw new IllegalStateException(PROP_DIR + " não é um diretório: " + dir);
+        }
+        Arrays.sort(files);
+        return new ArrayList<>(Arrays.asList(files));
+    }
+
+    /**
+     * Carrega os arquivos de {@value #PROP_DIR} numa única transação.
+     */
+    public void load() {
+        final List<File> files = getSeedFiles();
+        if (files.isEmpty()) {
+            return;
+        }
+        final EntityManagerFactory emf = emfProvider.get();
+        final Object hbm2ddl = emf.getProperties().get(AvailableSettings.HBM2DDL_AUTO);
+        if (!"create".equals(hbm2ddl) && !"create-drop".equals(hbm2ddl)) {
+            log.info("Seed ignorado: {}={}, o banco não foi recriado", AvailableSettings.HBM2DDL_AUTO, hbm2ddl);
+            return;
+        }
+        final Map<String, DatabaseStructure> sequences = getSequencesByTable(emf);
+        final Stopwatch stopwatch = Stopwatch.createStarted();
+        final EntityManager em = emf.createEntityManager();
+        final EntityTransaction transaction = em.getTransaction();
+        final long[] total = new long[1];
+        try {
+            transaction.begin();
+            em.unwrap(Session.class).doWork(connection -> {
+                for (File file : files) {
+                    total[0] += load(connection, file, sequences);
+                }
+            });
+            transaction.commit();
+        } catch (RuntimeException e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+        final long millis = Math.max(1, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+        log.info("Seed: {} linha(s) de {} arquivo(s) em {} ms ({} linhas/s)", total[0], files.size(), millis, total[0] * 1000 / millis);
+    }
+
+    private static int load(Connection connection, File file, Map<String, DatabaseStructure> sequences) throws SQLException {
+        final Stopwatch stopwatch = Stopwatch.createStarted();
+        final String table = tableName(file);
+        final boolean gzip = file.getName().endsWith(CSV_GZ);
+        final Path csv = gzip ? gunzip(file) : file.toPath();
+        try (Statement statement = connection.createStatement()) {
+            final List<String> columns = readHeader(csv);
+            // @formatter:off
+            final int rows = statement.executeUpdate(
+                    "INSERT INTO " + table + " (" + String.join(", ", columns) + ") "
+                    + "SELECT * FROM CSVREAD(" + quote(csv.toAbsolutePath().toString()) + ", NULL, 'charset=UTF-8 fieldSeparator=,')");
+            // @formatter:on
+            if (columns.contains("ID")) {
+                restartIdGenerator(statement, table, sequences.get(table));
+            }
+            final long millis = Math.max(1, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+            log.info("Seed {}: {} linha(s) em {} ms ({} linhas/s)", table, rows, millis, rows * 1000L / millis);
+            return rows;
+        } finally {
+            if (gzip) {
+                deleteQuietly(csv);
+            }
+        }
+    }
+
+    /**
+     * Faz o próximo id de {@code table} começar após o maior id carregado, senão os próximos INSERTs da aplicação colidiriam.
+     *
+     * @param sequence
+     *            sequence da entidade da tabela ou {@code null} se o id não vier de uma sequence
+     */
+    private static void restartIdGenerator(Statement statement, String table, DatabaseStructure sequence) throws SQLException {
+        final long maxId;
+        try (ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(ID), 0) FROM " + table)) {
+            rs.next();
+            maxId = rs.getLong(1);
+        }
+        if (sequence != null) {
+            // pooled: o valor lido da sequence é o maior id do bloco [valor - incremento + 1, valor]; mantém o alinhamento com o START WITH 1
+            final int increment = Math.max(1, sequence.getIncrementSize());
+            final long restartWith = ((maxId + increment - 1) / increment + 1) * increment + 1;
+            statement.execute("ALTER SEQUENCE " + sequence.getName() + " RESTART WITH " + restartWith);
+            return;
+        }
+        if (isIdentity(statement, table)) {
+            statement.execute("ALTER TABLE " + table + " ALTER COLUMN ID RESTART WITH " + (maxId + 1));
+        } else {
+            log.warn("Seed {}: coluna ID sem identidade nem sequence conhecida, o gerador de ids não foi reiniciado", table);
+        }
+    }
+
+    private static boolean isIdentity(Statement statement, String table) throws SQLException {
+        final String[] name = table.contains(".") ? table.split("\\.") : new String[] { null, table };
+        // @formatter:off
+        final String sql = "SELECT SEQUENCE_NAME FROM INFORMATION_SCHEMA.COLUMNS WHERE COLUMN_NAME = 'ID' AND TABLE_NAME = " + quote(name[1])
+                + (name[0] != null ? " AND TABLE_SCHEMA = " + quote(name[0]) : " AND TABLE_SCHEMA = SCHEMA()");
+        // @formatter:on
+        try (ResultSet rs = statement.executeQuery(sql)) {
+            return rs.next() && rs.getString(1) != null;
+        }
+    }
+
+    /**
+     * @return a sequence de cada tabela (em maiúsculas) cujo id é gerado por {@link SequenceStyleGenerator}
+     */
+    private static Map<String, DatabaseStructure> getSequencesByTable(EntityManagerFactory emf) {
+        final Map<String, DatabaseStructure> sequences = new HashMap<>();
+        for (EntityPersister persister : emf.unwrap(SessionFactoryImplementor.class).getMetamodel().entityPersisters().values()) {
+            if (persister instanceof AbstractEntityPersister && persister.getIdentifierGenerator() instanceof SequenceStyleGenerator) {
+                final String table = StringUtils.strip(((AbstractEntityPersister) persister).getTableName(), "\"`").toUpperCase(Locale.ROOT);
+                sequences.put(table, ((SequenceStyleGenerator) persister.getIdentifierGenerator()).getDatabaseStructure());
+            }
+        }
+        return sequences;
+    }
+
+    /**
+     * @return nome da tabela: o nome do arquivo sem a extensão e sem o prefixo numérico de ordenação
+     */
+    static String tableName(File file) {
+        final String name = StringUtils.removeEnd(StringUtils.removeEnd(file.getName(), CSV_GZ), CSV);
+        final String table = name.replaceFirst("^\\d+[_-]", "").toUpperCase(Locale.ROOT);
+        if (!table.matches("[A-Z_][A-Z0-9_]*(\\.[A-Z_][A-Z0-9_]*)?")) {
+            throw new IllegalArgumentException("Nome de tabela inválido no arquivo de seed: " + file.getName());
+        }
+        return table;
+    }
+
+    private static List<String> readHeader(Path csv) {
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            final String header = reader.readLine();
+            if (StringUtils.isBlank(header)) {
+                throw new IllegalArgumentException("Arquivo de seed sem cabeçalho: " + csv);
+            }
+            // @formatter:off
+            final List<String> columns = Arrays.stream(header.split(","))
+                    .map(column -> StringUtils.strip(column.trim(), "\"").toUpperCase(Locale.ROOT))
+                    .collect(Collectors.toList());
+            // @formatter:on
+            for (String column : columns) {
+                if (!column.matches("[A-Z_][A-Z0-9_]*")) {
+                    throw new IllegalArgumentException("Coluna inválida no arquivo de seed " + csv + ": " + column);
+                }
+            }
+            return columns;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path gunzip(File file) {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file.toPath()), 64 * 1024)) {
+            final Path csv = Files.createTempFile("seed-", CSV);
+            Files.copy(in, csv, StandardCopyOption.REPLACE_EXISTING);
+            return csv;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao descompactar " + file, e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Não foi possível remover {}", path, e);
+        }
+    }
+
+    private static String quote(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+
+}
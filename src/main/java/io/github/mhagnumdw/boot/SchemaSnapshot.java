@@ -0,0 +1,368 @@
+package io.github.mhagnumdw.boot;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import javax.persistence.Embeddable;
+import javax.persistence.Entity;
+import javax.persistence.IdClass;
+import javax.persistence.MappedSuperclass;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.apache.commons.lang3.StringUtils;
+import org.h2.tools.DeleteDbFiles;
+import org.hibernate.Version;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+
+import io.github.mhagnumdw.entity.EntityGenericAbstract;
+import io.github.mhagnumdw.util.ScanUtils;
+
+/**
+ * Modo de inicialização que restaura o banco H2 a partir de um snapshot em vez de recriar o schema e reimportar o load.sql e as cargas CSV.
+ * <p>
+ * É calculado um hash do modelo: entidades, {@link Embeddable}'s e {@link MappedSuperclass}'s alcançáveis a partir delas (classe, anotações e
+ * campos), propriedades da unidade de persistência (dialeto, naming strategy, {@code app.id.pooled.increment_size}, URL do banco etc.), arquivos
+ * de importação ({@code hibernate.hbm2ddl.import_files}), arquivos do {@link CsvSeedLoader} (nome, tamanho e data) e versão do Hibernate. O
+ * snapshot são os próprios arquivos do banco H2, copiados ({@code BACKUP TO}) logo após uma inicialização que criou o schema, antes de qualquer
+ * uso, num diretório com o hash no nome:
+ * <ul>
+ * <li>existe snapshot do hash: antes de qualquer conexão, os arquivos do banco são apagados e substituídos pela cópia, e o schema só é validado
+ * ({@code hibernate.hbm2ddl.auto=validate}). O custo é o de copiar os arquivos, sem executar SQL, então cada inicialização parte do mesmo estado
+ * sem passar pelo Hibernate nem reimportar as cargas;</li>
+ * <li>não existe: o schema é recriado como configurado no persistence.xml e o novo snapshot é gravado (os de outros hashes são apagados).</li>
+ * </ul>
+ * Só se aplica a banco H2 em arquivo ({@code jdbc:h2:<caminho>} ou {@code jdbc:h2:file:<caminho>}); com outra URL o modo é ignorado.
+ * </p>
+ *
+ * <pre>
+ * app.boot.snapshot     : se true usa o snapshot (default: false)
+ * app.boot.snapshot.dir : diretório dos snapshots (default: db/h2/snapshot)
+ * </pre>
+ */
+public final class SchemaSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaSnapshot.class);
+
+    public static final String PROP_ENABLED = "app.boot.snapshot";
+
+    public static final String PROP_DIR = "app.boot.snapshot.dir";
+
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private static final String URL_PREFIX = "jdbc:h2:";
+
+    /**
+     * Propriedades que não alteram o schema nem os dados.
+     */
+    private static final Set<String> IGNORED_PROPERTIES = new TreeSet<>(Arrays.asList("javax.persistence.jdbc.user", "javax.persistence.jdbc.password",
+            "hibernate.show_sql", "hibernate.format_sql", "hibernate.use_sql_comments", "hibernate.generate_statistics", "hibernate.session.events.log"));
+
+    private static final String PERSISTENCE_XML = "META-INF/persistence.xml";
+
+    private final Map<String, String> unitProperties;
+
+    private final String modelHash;
+
+    private final boolean schemaCreated;
+
+    private SchemaSnapshot(Map<String, String> unitProperties, String modelHash, boolean schemaCreated) {
+        this.unitProperties = unitProperties;
+        this.modelHash = modelHash;
+        this.schemaCreated = schemaCreated;
+    }
+
+    /**
+     * Verifica o snapshot do banco da unidade de persistência {@code persistenceUnitName}. Com o modo desligado ({@value #PROP_ENABLED}) nada é
+     * verificado e o persistence.xml é usado como está.
+     */
+    public static SchemaSnapshot check(String persistenceUnitName) {
+        if (!Boolean.getBoolean(PROP_ENABLED)) {
+            return new SchemaSnapshot(Collections.emptyMap(), null, true);
+        }
+        final Map<String, String> unitProperties = readUnitProperties(persistenceUnitName);
+        if (getDatabaseFile(unitProperties) == null) {
+            log.warn("Snapshot do schema ignorado: {} não é um banco H2 em arquivo", unitProperties.get("javax.persistence.jdbc.url"));
+            return new SchemaSnapshot(Collections.emptyMap(), null, true);
+        }
+        final String modelHash = computeModelHash(unitProperties);
+        final File snapshot = getSnapshotDir(modelHash);
+        final boolean restored = snapshot.isDirectory() && restore(unitProperties, snapshot);
+        log.info("Snapshot do schema: modelo {} -> {}", modelHash, restored ? "restaurado de " + snapshot : "recriar");
+        return new SchemaSnapshot(unitProperties, modelHash, !restored);
+    }
+
+    /**
+     * @return {@code true} se o schema foi (ou será) criado nesta inicialização, ou seja, se o banco não tem os dados do snapshot
+     */
+    public boolean isSchemaCreated() {
+        return schemaCreated;
+    }
+
+    /**
+     * @return propriedades que sobrepõem as do persistence.xml (vazio se o schema deve ser criado)
+     */
+    public Map<String, String> getPersistenceProperties() {
+        if (schemaCreated) {
+            return Collections.emptyMap();
+        }
+        // com validate o Hibernate não executa os import_files
+        return Collections.singletonMap("hibernate.hbm2ddl.auto", "validate");
+    }
+
+    /**
+     * Grava o snapshot do banco. Deve ser chamado logo após a persistência iniciar e as cargas iniciais terminarem, antes de qualquer uso do banco;
+     * só tem efeito se o schema foi criado.
+     */
+    public void save() {
+        if (modelHash == null || !schemaCreated) {
+            return;
+        }
+        final File snapshot = getSnapshotDir(modelHash);
+        final File tmp = new File(snapshot.getParentFile(), snapshot.getName() + TMP_SUFFIX);
+        final File backup = new File(snapshot.getParentFile(), snapshot.getName() + ".zip" + TMP_SUFFIX);
+        try {
+            deleteRecursively(tmp);
+            Files.createDirectories(tmp.toPath());
+            try (Connection connection = connect(unitProperties); Statement statement = connection.createStatement()) {
+                // cópia consistente dos arquivos do banco, mesmo com ele aberto
+                statement.execute("BACKUP TO " + literal(backup));
+            }
+            unzip(backup, tmp);
+            deleteRecursively(snapshot);
+            Files.move(tmp.toPath(), snapshot.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (SQLException | IOException e) {
+            deleteRecursively(tmp);
+            log.warn("Não foi possível gravar o snapshot do schema; na próxima inicialização o schema será recriado", e);
+            return;
+        } finally {
+            backup.delete();
+        }
+        final File[] old = snapshot.getParentFile().listFiles(file -> file.isDirectory() && !file.equals(snapshot));
+        if (old != null) {
+            Arrays.stream(old).forEach(SchemaSnapshot::deleteRecursively);
+        }
+        log.info("Snapshot do schema gravado: {}", snapshot);
+    }
+
+    /**
+     * Apaga os arquivos do banco e copia os do snapshot no lugar. Deve ser chamado antes de qualquer conexão com o banco.
+     *
+     * @return {@code true} se restaurado, {@code false} se falhou (o schema deve ser recriado)
+     */
+    private static boolean restore(Map<String, String> unitProperties, File snapshot) {
+        final File databaseFile = getDatabaseFile(unitProperties);
+        final File directory = databaseFile.getAbsoluteFile().getParentFile();
+        final File[] files = snapshot.listFiles(File::isFile);
+        if (files == null || files.length == 0) {
+            return false;
+        }
+        try {
+            DeleteDbFiles.execute(directory.getPath(), databaseFile.getName(), true);
+            Files.createDirectories(directory.toPath());
+            for (File file : files) {
+                Files.copy(file.toPath(), new File(directory, file.getName()).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            // banco possivelmente incompleto: apagado, para ser recriado pelo Hibernate
+            DeleteDbFiles.execute(directory.getPath(), databaseFile.getName(), true);
+            log.warn("Não foi possível restaurar o snapshot {}; o schema será recriado", snapshot, e);
+            return false;
+        }
+    }
+
+    /**
+     * @return o caminho do banco (sem a extensão) da URL {@code jdbc:h2:[file:]<caminho>[;...]} ou {@code null} se o banco não for em arquivo
+     *         (memória, servidor TCP etc.)
+     */
+    static File getDatabaseFile(Map<String, String> unitProperties) {
+        final String url = unitProperties.get("javax.persistence.jdbc.url");
+        if (url == null || !url.startsWith(URL_PREFIX)) {
+            return null;
+        }
+        String path = StringUtils.substringBefore(url.substring(URL_PREFIX.length()), ";");
+        path = StringUtils.removeStart(path, "file:");
+        if (path.isEmpty() || path.startsWith("mem:") || path.startsWith("tcp:") || path.startsWith("ssl:") || path.startsWith("zip:")) {
+            return null;
+        }
+        if (path.startsWith("~")) {
+            path = System.getProperty("user.home") + path.substring(1);
+        }
+        return new File(path);
+    }
+
+    private static void unzip(File zip, File directory) throws IOException {
+        try (ZipInputStream in = new ZipInputStream(new FileInputStream(zip))) {
+            for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+                if (!entry.isDirectory()) {
+                    Files.copy(in, new File(directory, new File(entry.getName()).getName()).toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+    }
+
+    private static void deleteRecursively(File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            Arrays.stream(children).forEach(SchemaSnapshot::deleteRecursively);
+        }
+        file.delete();
+    }
+
+    private static File getSnapshotDir(String modelHash) {
+        return new File(System.getProperty(PROP_DIR, "db/h2/snapshot"), modelHash);
+    }
+
+    private static String literal(File file) {
+        return "'" + file.getAbsolutePath().replace("'", "''") + "'";
+    }
+
+    private static Connection connect(Map<String, String> unitProperties) throws SQLException {
+        return DriverManager.getConnection(unitProperties.get("javax.persistence.jdbc.url"), unitProperties.get("javax.persistence.jdbc.user"),
+                unitProperties.get("javax.persistence.jdbc.password"));
+    }
+
+    private static String computeModelHash(Map<String, String> unitProperties) {
+        final Hasher hasher = Hashing.sha256().newHasher();
+        hasher.putString(Version.getVersionString(), StandardCharsets.UTF_8);
+
+        for (Class<?> type : collectModelTypes()) {
+            hasher.putString(type.getName(), StandardCharsets.UTF_8);
+            hasher.putString(Arrays.toString(type.getDeclaredAnnotations()), StandardCharsets.UTF_8);
+            final Field[] fields = type.getDeclaredFields();
+            Arrays.sort(fields, Comparator.comparing(Field::getName));
+            for (Field field : fields) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    hasher.putString(field.getName(), StandardCharsets.UTF_8);
+                    hasher.putString(field.getGenericType().getTypeName(), StandardCharsets.UTF_8);
+                    hasher.putString(Arrays.toString(field.getDeclaredAnnotations()), StandardCharsets.UTF_8);
+                }
+            }
+        }
+
+        new TreeMap<>(unitProperties).forEach((name, value) -> {
+            if (!IGNORED_PROPERTIES.contains(name)) {
+                hasher.putString(name, StandardCharsets.UTF_8).putString(value, StandardCharsets.UTF_8);
+            }
+        });
+
+        for (String importFile : StringUtils.split(StringUtils.defaultString(unitProperties.get("hibernate.hbm2ddl.import_files")), ',')) {
+            final URL resource = Thread.currentThread().getContextClassLoader().getResource(StringUtils.removeStart(importFile.trim(), "/"));
+            hasher.putString(importFile.trim(), StandardCharsets.UTF_8);
+            if (resource != null) {
+                try (InputStream in = resource.openStream()) {
+                    hasher.putBytes(ByteStreams.toByteArray(in));
+                } catch (IOException e) {
+                    throw new IllegalStateException("Falha ao ler " + importFile, e);
+                }
+            }
+        }
+        for (File seed : CsvSeedLoader.getSeedFiles()) {
+            hasher.putString(seed.getName(), StandardCharsets.UTF_8).putLong(seed.length()).putLong(seed.lastModified());
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * @return as entidades e todos os tipos alcançáveis a partir delas que fazem parte do mapeamento: super-classes, {@link Embeddable}'s (inclusive
+     *         em coleções) e {@link IdClass}, ordenados pelo nome
+     */
+    private static Set<Class<?>> collectModelTypes() {
+        final Set<Class<?>> types = new TreeSet<>(Comparator.comparing(Class::getName));
+        final Deque<Class<?>> pending = new ArrayDeque<>();
+        BootReport.time(BootReport.SCAN, () -> ScanUtils.getSubTypesOf(EntityGenericAbstract.class)).stream().filter(type -> type.isAnnotationPresent(Entity.class)).forEach(pending::add);
+        while (!pending.isEmpty()) {
+            final Class<?> type = pending.poll();
+            if (type == null || type == Object.class || !types.add(type)) {
+                continue;
+            }
+            pending.add(type.getSuperclass());
+            final IdClass idClass = type.getAnnotation(IdClass.class);
+            if (idClass != null) {
+                pending.add(idClass.value());
+            }
+            for (Field field : type.getDeclaredFields()) {
+                addMapped(field.getGenericType(), pending);
+            }
+        }
+        return types;
+    }
+
+    private static void addMapped(Type type, Deque<Class<?>> pending) {
+        if (type instanceof Class) {
+            final Class<?> clazz = (Class<?>) type;
+            if (clazz.isAnnotationPresent(Embeddable.class) || clazz.isAnnotationPresent(MappedSuperclass.class) || clazz.isAnnotationPresent(Entity.class)) {
+                pending.add(clazz);
+            }
+        } else if (type instanceof ParameterizedType) {
+            addMapped(((ParameterizedType) type).getRawType(), pending);
+            Arrays.stream(((ParameterizedType) type).getActualTypeArguments()).forEach(argument -> addMapped(argument, pending));
+        }
+    }
+
+    /**
+     * Lê as propriedades da unidade de persistência do persistence.xml.
+     */
+    private static Map<String, String> readUnitProperties(String persistenceUnitName) {
+        final URL persistenceXml = Thread.currentThread().getContextClassLoader().getResource(PERSISTENCE_XML);
+        if (persistenceXml == null) {
+            throw new IllegalStateException(PERSISTENCE_XML + " não encontrado");
+        }
+        try (InputStream in = persistenceXml.openStream()) {
+            final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            final Document document = factory.newDocumentBuilder().parse(in);
+            final NodeList units = document.getElementsByTagNameNS("*", "persistence-unit");
+            for (int i = 0; i < units.getLength(); i++) {
+                final Element unit = (Element) units.item(i);
+                if (persistenceUnitName.equals(unit.getAttribute("name"))) {
+                    final Map<String, String> properties = new HashMap<>();
+                    final NodeList nodes = unit.getElementsByTagNameNS("*", "property");
+                    for (int j = 0; j < nodes.getLength(); j++) {
+                        final Element property = (Element) nodes.item(j);
+                        properties.put(property.getAttribute("name"), property.getAttribute("value"));
+                    }
+                    return properties;
+                }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Falha ao ler " + PERSISTENCE_XML, e);
+        }
+        throw new IllegalStateException("Unidade de persistência " + persistenceUnitName + " não encontrada em " + PERSISTENCE_XML);
+    }
+
+}
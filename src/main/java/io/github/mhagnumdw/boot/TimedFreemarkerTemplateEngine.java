@@ -0,0 +1,16 @@
+package io.github.mhagnumdw.boot;
+
+import ro.pippo.core.Application;
+import ro.pippo.freemarker.FreemarkerTemplateEngine;
+
+/**
+ * {@link FreemarkerTemplateEngine} que registra no {@link BootReport} o tempo da sua inicialização ({@link BootReport#TEMPLATE}).
+ */
+public class TimedFreemarkerTemplateEngine extends FreemarkerTemplateEngine {
+
+    @Override
+    public void init(Application application) {
+        BootReport.time(BootReport.TEMPLATE, () -> super.init(application));
+    }
+
+}
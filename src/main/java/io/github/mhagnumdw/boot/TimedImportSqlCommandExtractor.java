@@ -0,0 +1,25 @@
+package io.github.mhagnumdw.boot;
+
+import java.io.Reader;
+
+import org.hibernate.tool.hbm2ddl.SingleLineSqlCommandExtractor;
+
+/**
+ * {@link SingleLineSqlCommandExtractor} (o padrão do Hibernate) que marca no {@link BootReport} o início da importação do load.sql.
+ * <p>
+ * Configurado em {@code hibernate.hbm2ddl.import_files_sql_extractor}.
+ * </p>
+ *
+ * @see TimedSchemaManagementTool
+ */
+public class TimedImportSqlCommandExtractor extends SingleLineSqlCommandExtractor {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public String[] extractCommands(Reader reader) {
+        TimedSchemaManagementTool.importStarted();
+        return super.extractCommands(reader);
+    }
+
+}
@@ -0,0 +1,44 @@
+package io.github.mhagnumdw.boot;
+
+import java.util.Map;
+
+import org.hibernate.tool.schema.internal.HibernateSchemaManagementTool;
+import org.hibernate.tool.schema.spi.SchemaCreator;
+
+/**
+ * {@link HibernateSchemaManagementTool} que registra no {@link BootReport} o tempo da criação do schema ({@link BootReport#SCHEMA}) e da
+ * importação do load.sql ({@link BootReport#IMPORT}), que o Hibernate executa na sequência. A troca de uma fase para outra é feita por
+ * {@link TimedImportSqlCommandExtractor}, chamado quando a importação começa.
+ * <p>
+ * Configurado em {@code hibernate.schema_management_tool}.
+ * </p>
+ */
+public class TimedSchemaManagementTool extends HibernateSchemaManagementTool {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public SchemaCreator getSchemaCreator(Map options) {
+        final SchemaCreator creator = super.getSchemaCreator(options);
+        return (metadata, executionOptions, sourceDescriptor, targetDescriptor) -> {
+            BootReport.begin(BootReport.SCHEMA);
+            try {
+                creator.doCreation(metadata, executionOptions, sourceDescriptor, targetDescriptor);
+            } finally {
+                BootReport.end(BootReport.SCHEMA); // sem efeito se a importação já encerrou a fase
+                BootReport.end(BootReport.IMPORT);
+            }
+        };
+    }
+
+    /**
+     * Encerra a fase {@link BootReport#SCHEMA} e inicia a {@link BootReport#IMPORT}. Só tem efeito no primeiro arquivo importado.
+     */
+    static void importStarted() {
+        if (BootReport.end(BootReport.SCHEMA)) {
+            BootReport.begin(BootReport.IMPORT);
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+package io.github.mhagnumdw.cache;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Stopwatch;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import com.google.inject.persist.UnitOfWork;
+
+import io.github.mhagnumdw.dao.DAO;
+import io.github.mhagnumdw.helper.UnitOfWorkHelper;
+import io.github.mhagnumdw.util.HibernateUtil;
+
+/**
+ * Pré-carrega o cache de segundo nível com todas as instâncias das entidades configuradas, incluindo a região do id-natural
+ * ({@code @NaturalIdCache}), para que as primeiras requisições de um nó recém-iniciado não precisem ir ao banco.
+ * <p>
+ * As entidades são lidas por stream, com a sessão em {@link CacheMode#REFRESH}: cada entidade lida é colocada no cache (sobrescrevendo o que já
+ * houver) e desanexada em seguida, assim o persistence context não cresce.
+ * </p>
+ *
+ * @see io.github.mhagnumdw.PippoApplication#onInit()
+ */
+@Singleton
+public class CacheWarmer {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheWarmer.class);
+
+    @Inject
+    private DAO dao;
+
+    @Inject
+    private Provider<UnitOfWork> unitOfWorkProvider;
+
+    /**
+     * Pré-carrega as entidades {@code entityClassNames}. Classes inexistentes ou que não são entidades são ignoradas com um aviso.
+     *
+     * @param entityClassNames
+     *            nomes completos das classes das entidades
+     */
+    public void warmUp(List<String> entityClassNames) {
+        if (entityClassNames.isEmpty()) {
+            return;
+        }
+        final Stopwatch total = Stopwatch.createStarted();
+        long totalEntries = 0;
+        final UnitOfWork unitOfWork = UnitOfWorkHelper.begin(unitOfWorkProvider.get(), log);
+        try {
+            final Session session = dao.getEntityManager().unwrap(Session.class);
+            final CacheMode cacheMode = session.getCacheMode();
+            session.setCacheMode(CacheMode.REFRESH);
+            try {
+                for (String entityClassName : entityClassNames) {
+                    final Class<?> entityClass = toEntityClass(entityClassName);
+                    if (entityClass != null) {
+                        totalEntries += warmUp(entityClass);
+                    }
+                }
+            } finally {
+                session.setCacheMode(cacheMode);
+            }
+        } finally {
+            UnitOfWorkHelper.end(unitOfWork, log);
+        }
+        log.info("Cache warm-up: {} entidade(s) carregada(s) em {} ms", totalEntries, total.elapsed(TimeUnit.MILLISECONDS));
+    }
+
+    private long warmUp(Class<?> entityClass) {
+        final Stopwatch stopwatch = Stopwatch.createStarted();
+        long count = 0;
+        // iteração explícita: o count() do Stream pode responder sem percorrer o pipeline, e aqui o que importa é carregar cada entidade
+        try (Stream<?> stream = dao.stream(entityClass)) {
+            final Iterator<?> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                iterator.next();
+                count++;
+            }
+        }
+        log.info("Cache warm-up: {} - {} entidade(s) em {} ms", entityClass.getSimpleName(), count, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+        return count;
+    }
+
+    private Class<?> toEntityClass(String entityClassName) {
+        try {
+            final Class<?> entityClass = Class.forName(entityClassName.trim());
+            if (HibernateUtil.isEntity(dao.getEntityManager(), entityClass)) {
+                return entityClass;
+            }
+            log.warn("Cache warm-up: {} não é uma entidade, ignorada", entityClassName);
+        } catch (ClassNotFoundException e) {
+            log.warn("Cache warm-up: classe {} não encontrada, ignorada", entityClassName);
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,185 @@
+package io.github.mhagnumdw.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheBuilderSpec;
+import com.google.inject.Singleton;
+
+/**
+ * Cache de leitura (<i>read-through</i>) do {@code Service}, com uma região por tipo de entidade.
+ * <p>
+ * Não guarda entidades: cada região guarda, por id e por id-natural, o <i>snapshot</i> imutável (DTO) gerado a partir da entidade carregada. Como o
+ * snapshot é imutável, a mesma instância é devolvida a todas as threads, sem cópia.
+ * </p>
+ * <p>
+ * A invalidação incrementa a geração da região: um snapshot carregado antes de uma invalidação não é guardado, mesmo que a carga termine depois
+ * dela.
+ * </p>
+ *
+ * @see io.github.mhagnumdw.service.Service#getReadThroughCacheSpec()
+ */
+@Singleton
+public class ReadThroughCache {
+
+    private final ConcurrentMap<Class<?>, Region<?, ?>> regions = new ConcurrentHashMap<>();
+
+    /**
+     * Retorna a região de {@code entityType}, criando-a com {@code spec} na primeira vez.
+     *
+     * @throws IllegalStateException
+     *             se a região já existe com outro tipo de snapshot
+     */
+    @SuppressWarnings("unchecked")
+    public <T, S> Region<T, S> region(Class<T> entityType, Spec<T, S> spec) {
+        Region<?, ?> region = regions.get(entityType);
+        if (region == null) {
+            region = regions.computeIfAbsent(entityType, type -> new Region<>(entityType, spec));
+        }
+        if (region.spec.snapshotType != spec.snapshotType) {
+            throw new IllegalStateException("A região de " + entityType.getName() + " já existe com snapshots " + region.spec.snapshotType.getName());
+        }
+        return (Region<T, S>) region;
+    }
+
+    public List<Region<?, ?>> getRegions() {
+        return new ArrayList<>(regions.values());
+    }
+
+    /**
+     * Configuração de uma região: eviction (tamanho, expiração, estatísticas) e como gerar o snapshot da entidade.
+     *
+     * @param <T>
+     *            tipo da entidade
+     * @param <S>
+     *            tipo do snapshot, <b>deve ser imutável</b>
+     */
+    public static final class Spec<T, S> {
+
+        private final CacheBuilderSpec cacheBuilderSpec;
+
+        private final Class<S> snapshotType;
+
+        private final Function<? super T, ? extends S> snapshot;
+
+        private Spec(CacheBuilderSpec cacheBuilderSpec, Class<S> snapshotType, Function<? super T, ? extends S> snapshot) {
+            this.cacheBuilderSpec = cacheBuilderSpec;
+            this.snapshotType = snapshotType;
+            this.snapshot = snapshot;
+        }
+
+        /**
+         * @param cacheBuilderSpec
+         *            configuração do cache, ver {@link CacheBuilderSpec}. Ex.: {@code maximumSize=1000,expireAfterWrite=10m,recordStats}
+         * @param snapshotType
+         *            classe do snapshot, <b>deve ser imutável</b>
+         * @param snapshot
+         *            gera o snapshot a partir da entidade, chamado dentro do contexto de persistência que a carregou
+         */
+        public static <T, S> Spec<T, S> of(String cacheBuilderSpec, Class<S> snapshotType, Function<? super T, ? extends S> snapshot) {
+            return new Spec<>(CacheBuilderSpec.parse(cacheBuilderSpec), snapshotType, snapshot);
+        }
+
+        public Class<S> getSnapshotType() {
+            return snapshotType;
+        }
+
+    }
+
+    /**
+     * Região de um tipo de entidade.
+     */
+    public static final class Region<T, S> {
+
+        private final Class<T> entityType;
+
+        private final Spec<T, S> spec;
+
+        private final Cache<Object, S> byId;
+
+        private final Cache<Object, S> byNaturalId;
+
+        private final AtomicLong generation = new AtomicLong();
+
+        private Region(Class<T> entityType, Spec<T, S> spec) {
+            this.entityType = entityType;
+            this.spec = spec;
+            this.byId = CacheBuilder.from(spec.cacheBuilderSpec).build();
+            this.byNaturalId = CacheBuilder.from(spec.cacheBuilderSpec).build();
+        }
+
+        /**
+         * @param loader
+         *            carrega a entidade quando o snapshot não está no cache, pode retornar nulo
+         *
+         * @return snapshot da entidade {@code id} ou nulo se ela não existir (inexistência não é guardada)
+         */
+        public S getById(Object id, Supplier<? extends T> loader) {
+            return get(byId, id, loader);
+        }
+
+        /**
+         * @see #getById(Object, Supplier)
+         */
+        public S getByNaturalId(Object naturalId, Supplier<? extends T> loader) {
+            return get(byNaturalId, naturalId, loader);
+        }
+
+        /**
+         * Invalida a entidade {@code id} e todo o cache por id-natural, já que o id-natural pode ter sido alterado.
+         *
+         * @param id
+         *            id da entidade, nulo invalida apenas o cache por id-natural
+         */
+        public void invalidate(Object id) {
+            generation.incrementAndGet();
+            if (id != null) {
+                byId.invalidate(id);
+            }
+            byNaturalId.invalidateAll();
+        }
+
+        public Class<T> getEntityType() {
+            return entityType;
+        }
+
+        public Class<S> getSnapshotType() {
+            return spec.snapshotType;
+        }
+
+        public long size() {
+            return byId.size() + byNaturalId.size();
+        }
+
+        @Override
+        public String toString() {
+            return "Region [entityType=" + entityType.getName() + ", size=" + size() + ", byId=" + byId.stats() + ", byNaturalId=" + byNaturalId.stats() + "]";
+        }
+
+        private S get(Cache<Object, S> cache, Object key, Supplier<? extends T> loader) {
+            final S cached = cache.getIfPresent(key);
+            if (cached != null) {
+                return cached;
+            }
+            final long loadGeneration = generation.get();
+            final T entity = loader.get();
+            if (entity == null) {
+                return null;
+            }
+            final S snapshot = spec.snapshot.apply(entity);
+            if (generation.get() == loadGeneration) {
+                cache.put(key, snapshot);
+            }
+            return snapshot;
+        }
+
+    }
+
+}
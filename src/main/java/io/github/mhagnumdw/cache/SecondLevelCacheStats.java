@@ -0,0 +1,138 @@
+package io.github.mhagnumdw.cache;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+
+/**
+ * Estatísticas por região do cache de segundo nível.
+ * <p>
+ * Acertos, faltas e inserções vêm das estatísticas do Hibernate ({@code hibernate.generate_statistics}); as remoções por tamanho/expiração vêm do MBean
+ * {@code javax.cache:type=CacheStatistics} do JCache ({@code monitoring.statistics = true} no application.conf).
+ * </p>
+ */
+@Singleton
+public class SecondLevelCacheStats {
+
+    private static final Logger log = LoggerFactory.getLogger(SecondLevelCacheStats.class);
+
+    private final Provider<EntityManagerFactory> emfProvider;
+
+    @Inject
+    SecondLevelCacheStats(Provider<EntityManagerFactory> emfProvider) {
+        this.emfProvider = emfProvider;
+    }
+
+    /**
+     * @return estatísticas de cada região, ordenadas pelo nome
+     */
+    public List<RegionStats> getRegions() {
+        final Statistics statistics = emfProvider.get().unwrap(SessionFactory.class).getStatistics();
+        final String[] regionNames = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regionNames);
+        final List<RegionStats> regions = new ArrayList<>(regionNames.length);
+        for (String regionName : regionNames) {
+            final CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region != null) {
+                regions.add(new RegionStats(regionName, region.getHitCount(), region.getMissCount(), region.getPutCount(), getEvictionCount(regionName)));
+            }
+        }
+        return regions;
+    }
+
+    public void log() {
+        getRegions().forEach(region -> log.info("{}", region));
+    }
+
+    /**
+     * @return remoções do cache {@code cacheName} ou -1 se o MBean de estatísticas do JCache não estiver registrado
+     */
+    private long getEvictionCount(String cacheName) {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            final ObjectName pattern = new ObjectName("javax.cache:type=CacheStatistics,CacheManager=*,Cache=" + cacheName.replaceAll("[,:=\n]", "."));
+            final Set<ObjectName> names = server.queryNames(pattern, null);
+            long evictions = -1;
+            for (ObjectName name : names) {
+                evictions = Math.max(evictions, 0) + ((Number) server.getAttribute(name, "CacheEvictions")).longValue();
+            }
+            return evictions;
+        } catch (JMException e) {
+            log.debug("Não foi possível ler as remoções do cache {}", cacheName, e);
+            return -1;
+        }
+    }
+
+    /**
+     * Estatísticas de uma região.
+     */
+    public static final class RegionStats {
+
+        private final String regionName;
+        private final long hitCount;
+        private final long missCount;
+        private final long putCount;
+        private final long evictionCount;
+
+        RegionStats(String regionName, long hitCount, long missCount, long putCount, long evictionCount) {
+            this.regionName = regionName;
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.putCount = putCount;
+            this.evictionCount = evictionCount;
+        }
+
+        public String getRegionName() {
+            return regionName;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        public long getMissCount() {
+            return missCount;
+        }
+
+        public long getPutCount() {
+            return putCount;
+        }
+
+        /**
+         * @return remoções por tamanho/expiração ou -1 se não disponível
+         */
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        public double getHitRatio() {
+            final long total = hitCount + missCount;
+            return total == 0 ? 0d : (double) hitCount / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s [hits=%d, misses=%d, puts=%d, evictions=%d, hitRatio=%.2f]", regionName, hitCount, missCount, putCount, evictionCount,
+                    getHitRatio());
+        }
+
+    }
+
+}
@@ -0,0 +1,67 @@
+package io.github.mhagnumdw.controller;
+
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+
+import io.github.mhagnumdw.cache.ReadThroughCache;
+import io.github.mhagnumdw.cache.SecondLevelCacheStats;
+import io.github.mhagnumdw.dao.NegativeLookupCache;
+import io.github.mhagnumdw.dao.QueryTemplateCache;
+import io.github.mhagnumdw.filter.NoPersistence;
+import ro.pippo.controller.Controller;
+import ro.pippo.controller.GET;
+import ro.pippo.controller.Path;
+import ro.pippo.controller.Produces;
+
+@Path("/cache")
+@NoPersistence
+public class CacheController extends Controller {
+
+    @Inject
+    private SecondLevelCacheStats secondLevelCacheStats;
+
+    @Inject
+    private NegativeLookupCache negativeLookupCache;
+
+    @Inject
+    private QueryTemplateCache queryTemplateCache;
+
+    @Inject
+    private ReadThroughCache readThroughCache;
+
+    @Inject
+    private Provider<EntityManagerFactory> emfProvider;
+
+    @GET("/stats")
+    @Produces(Produces.TEXT)
+    public String stats() {
+        return secondLevelCacheStats.getRegions().stream().map(Object::toString).collect(Collectors.joining("\n"));
+    }
+
+    @GET("/negative")
+    @Produces(Produces.TEXT)
+    public String negative() {
+        return negativeLookupCache.getStats().stream().map(Object::toString).collect(Collectors.joining("\n"));
+    }
+
+    @GET("/readthrough")
+    @Produces(Produces.TEXT)
+    public String readThrough() {
+        return readThroughCache.getRegions().stream().map(Object::toString).collect(Collectors.joining("\n"));
+    }
+
+    @GET("/queries")
+    @Produces(Produces.TEXT)
+    public String queries() {
+        final Statistics statistics = emfProvider.get().unwrap(SessionFactory.class).getStatistics();
+        return queryTemplateCache + "\nQueryPlanCache [hits=" + statistics.getQueryPlanCacheHitCount() + ", misses=" + statistics.getQueryPlanCacheMissCount() + "]";
+    }
+
+}
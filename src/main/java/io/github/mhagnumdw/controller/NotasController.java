@@ -1,10 +1,13 @@
 package io.github.mhagnumdw.controller;
 
+import java.util.Collections;
 import java.util.stream.Collectors;
 
 import com.google.inject.Inject;
 
-import io.github.mhagnumdw.entity.Nota;
+import io.github.mhagnumdw.dao.ReadOnly;
+import io.github.mhagnumdw.dto.NotaResumo;
+import io.github.mhagnumdw.entity.Nota_;
 import io.github.mhagnumdw.service.NotaService;
 import ro.pippo.controller.Controller;
 import ro.pippo.controller.GET;
@@ -12,6 +15,7 @@ import ro.pippo.controller.Path;
 import ro.pippo.controller.Produces;
 
 @Path("/notas")
+@ReadOnly
 public class NotasController extends Controller {
 
     @Inject
@@ -21,7 +25,11 @@ public class NotasController extends Controller {
     @Produces(Produces.TEXT)
     public String all() {
         // return "hello";
-        return notaService.getAll().stream().map(Nota::getName).collect(Collectors.joining("; "));
+        // @formatter:off
+        return notaService.getProjection(NotaResumo.class, Collections.singletonList(Nota_.name), null, null).stream()
+                .map(NotaResumo::getName)
+                .collect(Collectors.joining("; "));
+        // @formatter:on
     }
 
 }
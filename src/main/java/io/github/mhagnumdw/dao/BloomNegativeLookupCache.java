@@ -0,0 +1,458 @@
+package io.github.mhagnumdw.dao;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.hibernate.Session;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+
+/**
+ * {@link NegativeLookupCache} com um {@link BloomFilter} por (entidade, atributo).
+ * <p>
+ * Funcionamento:
+ * <ul>
+ * <li>{@link #load()} dimensiona e preenche cada filtro lendo a coluna por stream e registra listeners de pós-inserção e pós-alteração do Hibernate,
+ * assim todo valor gravado por entidades da sessão entra no filtro;</li>
+ * <li>valores gravados mas ainda não commitados ficam anotados até o fim da transação e entram no filtro reconstruído, mesmo que a leitura da tabela
+ * não os veja;</li>
+ * <li>UPDATE em lote ou SQL nativo ({@link DAO#executeUpdate(String, Map)}) grava valores que os listeners não veem: desde a execução até o filtro
+ * ser reconstruído depois do fim da transação, todos os valores "podem existir" (tudo vai ao banco);</li>
+ * <li>textos são guardados em minúsculas, então o filtro atende tanto a busca exata quanto a que ignora maiúsculas/minúsculas; números inteiros são
+ * guardados pelo valor, independente do tipo (Integer, Long...) do parâmetro;</li>
+ * <li>um Bloom filter não permite remoção: valores removidos ou alterados continuam "podendo existir" e só aumentam a
+ * taxa de falso positivo. Quando a taxa medida passa do dobro da configurada o filtro é reconstruído em segundo plano, a partir da tabela.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * <b>Só é correto se esta JVM for a única a gravar nas tabelas acompanhadas</b>: gravações de outros processos (ex.: outra conexão no H2 com
+ * AUTO_SERVER) não chegam ao filtro e geram falsos negativos. Por isso o cache só é carregado quando configurado explicitamente:
+ * </p>
+ *
+ * <pre>
+ * app.negativeLookup.singleWriter : true se esta aplicação é a única que grava nas tabelas com {@link NegativeLookup} (default: false, cache desligado)
+ * </pre>
+ * <p>
+ * O {@link BloomFilter} do Guava 22 não é thread-safe, por isso cada filtro é acessado sob o seu próprio lock.
+ * </p>
+ */
+@Singleton
+public class BloomNegativeLookupCache implements NegativeLookupCache {
+
+    private static final Logger log = LoggerFactory.getLogger(BloomNegativeLookupCache.class);
+
+    /**
+     * Mínimo de buscas negativas antes de avaliar a taxa de falso positivo medida.
+     */
+    private static final long MIN_SAMPLES = 1000;
+
+    public static final String PROP_SINGLE_WRITER = "app.negativeLookup.singleWriter";
+
+    private final Provider<EntityManagerFactory> emfProvider;
+
+    private final ExecutorService rebuildExecutor;
+
+    private volatile Map<Class<?>, Map<String, AttributeFilter>> filters = Collections.emptyMap();
+
+    @Inject
+    BloomNegativeLookupCache(Provider<EntityManagerFactory> emfProvider) {
+        this.emfProvider = emfProvider;
+        this.rebuildExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setDaemon(true).setNameFormat("negative-lookup-%d").build());
+    }
+
+    @Override
+    public synchronized void load() {
+        if (!filters.isEmpty()) {
+            return; // já carregado
+        }
+        if (!Boolean.getBoolean(PROP_SINGLE_WRITER)) {
+            log.info("Cache de buscas negativas desligado ({}=false)", PROP_SINGLE_WRITER);
+            return;
+        }
+        final EntityManagerFactory emf = emfProvider.get();
+        final Map<Class<?>, Map<String, AttributeFilter>> found = new HashMap<>();
+        for (EntityType<?> entityType : emf.getMetamodel().getEntities()) {
+            final Class<?> entityClass = entityType.getJavaType();
+            for (Class<?> current = entityClass; current != null && current != Object.class; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    final NegativeLookup config = field.getAnnotation(NegativeLookup.class);
+                    if (config == null) {
+                        continue;
+                    }
+                    if (!isSupported(field.getType())) {
+                        log.warn("@NegativeLookup ignorado em {}.{}: apenas String e tipos numéricos", entityClass.getSimpleName(), field.getName());
+                        continue;
+                    }
+                    found.computeIfAbsent(entityClass, type -> new HashMap<>()).put(field.getName(), new AttributeFilter(entityClass, field.getName(), config));
+                }
+            }
+        }
+        if (found.isEmpty()) {
+            return;
+        }
+        // publicado antes da carga: enquanto o filtro não fica pronto as buscas vão ao banco, mas as inserções já são acompanhadas
+        filters = found;
+        registerListeners(emf);
+        found.values().forEach(byAttribute -> byAttribute.values().forEach(this::rebuild));
+    }
+
+    @Override
+    public boolean isAbsent(Class<?> entityClass, SingularAttribute<?, ?> attribute, Object value) {
+        if (value == null) {
+            return false;
+        }
+        final AttributeFilter filter = find(entityClass, attribute.getName());
+        if (filter == null) {
+            return false;
+        }
+        final String key = toKey(value);
+        if (key == null || filter.mightContain(key)) {
+            return false;
+        }
+        filter.absent.increment();
+        return true;
+    }
+
+    @Override
+    public void recordLookup(Class<?> entityClass, SingularAttribute<?, ?> attribute, Object value, boolean found) {
+        final AttributeFilter filter = value == null ? null : find(entityClass, attribute.getName());
+        if (filter == null) {
+            return;
+        }
+        final String key = toKey(value);
+        if (key == null || !filter.answeredByBloom(key)) {
+            // o filtro não foi consultado (tipo não suportado, carga inicial ou inválido por UPDATE em lote): não é falso positivo nem motivo para
+            // reconstruir, a reconstrução depois do UPDATE em lote já é agendada pelo beforeBulkUpdate
+            return;
+        }
+        if (found) {
+            filter.found.increment();
+            return;
+        }
+        filter.falsePositives.increment();
+        if (filter.needsRebuild()) {
+            log.info("Reconstruindo o filtro {}: {}", filter.getName(), filter.toStats());
+            scheduleRebuild(filter);
+        }
+    }
+
+    @Override
+    public void beforeBulkUpdate(Session session) {
+        final List<AttributeFilter> all = new ArrayList<>();
+        filters.values().forEach(byAttribute -> all.addAll(byAttribute.values()));
+        if (all.isEmpty() || !session.getTransaction().isActive()) {
+            return; // sem transação o executeUpdate falha
+        }
+        all.forEach(AttributeFilter::beginBulk);
+        ((SessionImplementor) session).getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, s) -> all.forEach(filter -> {
+            if (filter.endBulk()) {
+                scheduleRebuild(filter);
+            }
+        }));
+    }
+
+    @Override
+    public List<Stats> getStats() {
+        final List<Stats> stats = new ArrayList<>();
+        filters.values().forEach(byAttribute -> byAttribute.values().forEach(filter -> stats.add(filter.toStats())));
+        return stats;
+    }
+
+    private AttributeFilter find(Class<?> entityClass, String attributeName) {
+        final Map<String, AttributeFilter> byAttribute = filters.get(entityClass);
+        return byAttribute == null ? null : byAttribute.get(attributeName);
+    }
+
+    /**
+     * Agenda a reconstrução de {@code filter}, se já não houver uma em andamento; repete enquanto um UPDATE em lote tiver terminado depois do
+     * início da leitura.
+     */
+    private void scheduleRebuild(AttributeFilter filter) {
+        if (!filter.rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        rebuildExecutor.execute(() -> {
+            boolean rebuilt = false;
+            try {
+                rebuilt = rebuild(filter);
+            } finally {
+                filter.rebuilding.set(false);
+            }
+            if (rebuilt && filter.isStaleAndIdle()) {
+                scheduleRebuild(filter);
+            }
+        });
+    }
+
+    /**
+     * Recria o filtro a partir da tabela. O filtro novo é criado já com os valores gravados e ainda não commitados; os gravados durante a leitura
+     * entram nele pelos listeners.
+     *
+     * @return {@code true} se o filtro foi recriado
+     */
+    @SuppressWarnings("unchecked")
+    private boolean rebuild(AttributeFilter filter) {
+        final Stopwatch stopwatch = Stopwatch.createStarted();
+        final String from = " FROM " + filter.entityClass.getName() + " e WHERE e." + filter.attribute + " IS NOT NULL";
+        final EntityManager em = emfProvider.get().createEntityManager();
+        try {
+            final long rows = em.createQuery("SELECT COUNT(e)" + from, Long.class).getSingleResult();
+            filter.startRebuild(rows);
+            final org.hibernate.query.Query<Object> query = em.createQuery("SELECT e." + filter.attribute + from, Object.class).unwrap(org.hibernate.query.Query.class);
+            query.setFetchSize(DAO.DEFAULT_FETCH_SIZE);
+            try (Stream<Object> values = query.stream()) {
+                values.forEach(value -> filter.putNext(toKey(value)));
+            }
+            filter.finishRebuild();
+            log.info("Filtro {} carregado: {} valor(es) em {} ms", filter.getName(), rows, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+            return true;
+        } catch (RuntimeException e) {
+            filter.abortRebuild();
+            log.error("Falha ao carregar o filtro {}", filter.getName(), e);
+            return false;
+        } finally {
+            em.close();
+        }
+    }
+
+    private void registerListeners(EntityManagerFactory emf) {
+        final EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class).getServiceRegistry().getService(EventListenerRegistry.class);
+        final Listener listener = new Listener();
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+    }
+
+    private void add(Object entity, EntityPersister persister, SessionImplementor session) {
+        final Map<String, AttributeFilter> byAttribute = filters.get(persister.getMappedClass());
+        if (byAttribute == null) {
+            return;
+        }
+        byAttribute.forEach((attribute, filter) -> {
+            final Object value = persister.getPropertyValue(entity, attribute);
+            final String key = value == null ? null : toKey(value);
+            if (key != null) {
+                filter.put(key);
+                // pendente até o fim da transação, para não se perder numa reconstrução que não enxerga o valor
+                session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, s) -> filter.committed(key));
+            }
+        });
+    }
+
+    private static boolean isSupported(Class<?> type) {
+        return CharSequence.class.isAssignableFrom(type) || isIntegral(ClassUtils.primitiveToWrapper(type));
+    }
+
+    private static boolean isIntegral(Class<?> type) {
+        return type == Long.class || type == Integer.class || type == Short.class || type == Byte.class;
+    }
+
+    /**
+     * @return a chave do valor no filtro ou {@code null} se o tipo não for suportado (o valor então "pode existir")
+     */
+    private static String toKey(Object value) {
+        if (value instanceof CharSequence) {
+            return value.toString().toLowerCase(Locale.ROOT);
+        }
+        if (isIntegral(value.getClass())) {
+            return Long.toString(((Number) value).longValue());
+        }
+        return null;
+    }
+
+    /**
+     * Mantém os filtros atualizados com os valores inseridos/alterados pela sessão do Hibernate.
+     */
+    private final class Listener implements PostInsertEventListener, PostUpdateEventListener {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            add(event.getEntity(), event.getPersister(), event.getSession());
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            add(event.getEntity(), event.getPersister(), event.getSession());
+        }
+
+        @Override
+        public boolean requiresPostCommitHanding(EntityPersister persister) {
+            return false;
+        }
+
+    }
+
+    /**
+     * Filtro de um atributo. Enquanto é (re)construído os valores novos vão para os dois filtros, o atual e o próximo.
+     * <p>
+     * Fica inválido ({@code stale}, tudo "pode existir") do início de um UPDATE em lote até uma reconstrução iniciada depois do fim de todos eles.
+     * </p>
+     */
+    private static final class AttributeFilter {
+
+        private final Class<?> entityClass;
+        private final String attribute;
+        private final NegativeLookup config;
+
+        private final LongAdder absent = new LongAdder();
+        private final LongAdder falsePositives = new LongAdder();
+        private final LongAdder found = new LongAdder();
+        private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+        /** Guarded by this. Nulo até a primeira carga terminar: tudo "pode existir". */
+        private BloomFilter<CharSequence> bloom;
+
+        /** Guarded by this. Filtro em construção. */
+        private BloomFilter<CharSequence> next;
+
+        /** Guarded by this. Valores gravados cuja transação ainda não terminou. */
+        private final Multiset<String> pending = HashMultiset.create();
+
+        /** Guarded by this. */
+        private boolean stale;
+
+        /** Guarded by this. UPDATEs em lote com transação em andamento. */
+        private int activeBulks;
+
+        /** Guarded by this. Incrementado ao fim de cada UPDATE em lote. */
+        private long bulkEpoch;
+
+        /** Guarded by this. Se a reconstrução em andamento pode tornar o filtro válido de novo. */
+        private boolean rebuildClearsStale;
+
+        /** Guarded by this. {@link #bulkEpoch} no início da reconstrução em andamento. */
+        private long rebuildEpoch;
+
+        AttributeFilter(Class<?> entityClass, String attribute, NegativeLookup config) {
+            this.entityClass = entityClass;
+            this.attribute = attribute;
+            this.config = config;
+        }
+
+        String getName() {
+            return entityClass.getSimpleName() + "." + attribute;
+        }
+
+        synchronized boolean mightContain(String key) {
+            return bloom == null || stale || bloom.mightContain(key);
+        }
+
+        /**
+         * @return {@code true} se o "pode existir" de {@code key} vem do filtro carregado e válido, e não da falta dele
+         */
+        synchronized boolean answeredByBloom(String key) {
+            return bloom != null && !stale && bloom.mightContain(key);
+        }
+
+        synchronized void put(String key) {
+            if (bloom != null) {
+                bloom.put(key);
+            }
+            if (next != null) {
+                next.put(key);
+            }
+            pending.add(key);
+        }
+
+        synchronized void committed(String key) {
+            pending.remove(key);
+        }
+
+        synchronized void beginBulk() {
+            activeBulks++;
+            stale = true;
+            rebuildClearsStale = false;
+        }
+
+        /**
+         * @return {@code true} se não há mais UPDATE em lote em andamento e o filtro deve ser reconstruído
+         */
+        synchronized boolean endBulk() {
+            activeBulks--;
+            bulkEpoch++;
+            return activeBulks == 0;
+        }
+
+        synchronized boolean isStaleAndIdle() {
+            return stale && activeBulks == 0;
+        }
+
+        synchronized void putNext(String key) {
+            next.put(key);
+        }
+
+        synchronized void startRebuild(long rows) {
+            next = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), Math.max(config.expectedInsertions(), rows * 2), config.fpp());
+            pending.elementSet().forEach(next::put);
+            rebuildClearsStale = activeBulks == 0;
+            rebuildEpoch = bulkEpoch;
+        }
+
+        synchronized void finishRebuild() {
+            bloom = next;
+            next = null;
+            if (rebuildClearsStale && rebuildEpoch == bulkEpoch) {
+                stale = false;
+            }
+            absent.reset();
+            falsePositives.reset();
+            found.reset();
+        }
+
+        synchronized void abortRebuild() {
+            next = null;
+        }
+
+        boolean needsRebuild() {
+            final long fp = falsePositives.sum();
+            final long samples = fp + absent.sum();
+            return samples >= MIN_SAMPLES && fp > 2 * config.fpp() * samples;
+        }
+
+        synchronized Stats toStats() {
+            final double expectedFpp = bloom == null ? 1d : bloom.expectedFpp();
+            return new Stats(getName(), expectedFpp, absent.sum(), falsePositives.sum(), found.sum());
+        }
+
+    }
+
+}
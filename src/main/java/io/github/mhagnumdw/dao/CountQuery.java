@@ -0,0 +1,100 @@
+package io.github.mhagnumdw.dao;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+
+import io.github.mhagnumdw.util.HibernateUtil;
+
+/**
+ * Consulta de contagem ({@code SELECT COUNT(...)}) usada para calcular o total de registros de uma busca paginada.
+ * <p>
+ * Guarda apenas a HQL (ou o nome da named query) e os parâmetros, dessa forma pode ser executada em qualquer {@link EntityManager}.
+ * </p>
+ */
+final class CountQuery {
+
+    private final String qlString;
+
+    private final String namedQuery;
+
+    private final Map<String, Object> params;
+
+    private CountQuery(String qlString, String namedQuery, Map<String, Object> params) {
+        this.qlString = qlString;
+        this.namedQuery = namedQuery;
+        this.params = params == null ? Collections.emptyMap() : Collections.unmodifiableMap(new HashMap<>(params));
+    }
+
+    /**
+     * Cria a contagem a partir de uma HQL.
+     *
+     * @param qlString
+     *            HQL que retorna um único {@link Long}
+     * @param params
+     *            parâmetros/condições, pode ser nulo
+     *
+     * @return instância de {@link CountQuery}
+     */
+    static CountQuery of(String qlString, Map<String, Object> params) {
+        return new CountQuery(qlString, null, params);
+    }
+
+    /**
+     * Cria a contagem a partir de uma named query.
+     *
+     * @param namedQuery
+     *            nome da named query que retorna um único {@link Long}
+     * @param params
+     *            parâmetros/condições, pode ser nulo
+     *
+     * @return instância de {@link CountQuery}
+     */
+    static CountQuery ofNamedQuery(String namedQuery, Map<String, Object> params) {
+        return new CountQuery(null, namedQuery, params);
+    }
+
+    /**
+     * Executa a contagem no {@code em}.
+     *
+     * @param em
+     *            EntityManager
+     *
+     * @return quantidade de registros
+     */
+    int execute(EntityManager em) {
+        final TypedQuery<Long> query;
+        if (namedQuery != null) {
+            query = em.createNamedQuery(namedQuery, Long.class);
+        } else {
+            query = em.createQuery(qlString, Long.class);
+        }
+        HibernateUtil.setParametersString(query, params);
+        return query.getSingleResult().intValue();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(qlString, namedQuery, params);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof CountQuery))
+            return false;
+        CountQuery other = (CountQuery) obj;
+        return Objects.equals(qlString, other.qlString) && Objects.equals(namedQuery, other.namedQuery) && Objects.equals(params, other.params);
+    }
+
+    @Override
+    public String toString() {
+        return namedQuery != null ? namedQuery + " " + params : qlString + " " + params;
+    }
+
+}
@@ -0,0 +1,122 @@
+package io.github.mhagnumdw.dao;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+
+/**
+ * Executa os {@link CountQuery} das buscas paginadas, de forma síncrona no {@link EntityManager} da requisição ou em paralelo num
+ * {@link EntityManager} (e conexão) próprio, reaproveitando totais recentes conforme {@link PagingConfig}.
+ */
+@Singleton
+public class CountQueryExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(CountQueryExecutor.class);
+
+    private static final long MAX_CACHED_TOTALS = 10_000;
+
+    private final PagingConfig config;
+
+    private final Provider<EntityManagerFactory> emfProvider;
+
+    private final Cache<CountQuery, Integer> totals;
+
+    private final ExecutorService executor;
+
+    @Inject
+    CountQueryExecutor(PagingConfig config, Provider<EntityManagerFactory> emfProvider) {
+        this.config = config;
+        this.emfProvider = emfProvider;
+        log.info("{}", config);
+
+        if (config.isTotalReuseEnabled()) {
+            // @formatter:off
+            this.totals = CacheBuilder.newBuilder()
+                    .expireAfterWrite(config.getTotalMaxAgeMillis(), TimeUnit.MILLISECONDS)
+                    .maximumSize(MAX_CACHED_TOTALS)
+                    .build();
+            // @formatter:on
+        } else {
+            this.totals = null;
+        }
+
+        if (config.isParallelCount()) {
+            // Sem fila: se todas as threads estiverem ocupadas a contagem roda na própria thread da requisição
+            // @formatter:off
+            this.executor = new ThreadPoolExecutor(0, config.getCountThreads(), 60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                    new ThreadFactoryBuilder().setDaemon(true).setNameFormat("dao-count-%d").build(),
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+            // @formatter:on
+        } else {
+            this.executor = null;
+        }
+    }
+
+    public boolean isParallel() {
+        return executor != null;
+    }
+
+    /**
+     * Retorna o total ainda válido calculado recentemente para {@code countQuery}.
+     *
+     * @return o total ou {@code null} se não houver
+     */
+    Integer getRecentTotal(CountQuery countQuery) {
+        return totals == null ? null : totals.getIfPresent(countQuery);
+    }
+
+    /**
+     * Executa a contagem no {@code em} da requisição.
+     */
+    int count(CountQuery countQuery, EntityManager em) {
+        final Integer recent = getRecentTotal(countQuery);
+        if (recent != null) {
+            return recent;
+        }
+        return remember(countQuery, countQuery.execute(em));
+    }
+
+    /**
+     * Executa a contagem em outra thread usando um {@link EntityManager} próprio.
+     * <p>
+     * <b>Por usar outra conexão, a contagem não enxerga alterações ainda não commitadas da transação corrente.</b>
+     * </p>
+     */
+    CompletableFuture<Integer> countAsync(CountQuery countQuery) {
+        final Integer recent = getRecentTotal(countQuery);
+        if (recent != null) {
+            return CompletableFuture.completedFuture(recent);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            final EntityManager em = emfProvider.get().createEntityManager();
+            try {
+                return remember(countQuery, countQuery.execute(em));
+            } finally {
+                em.close();
+            }
+        }, executor);
+    }
+
+    private int remember(CountQuery countQuery, int total) {
+        if (totals != null) {
+            totals.put(countQuery, total);
+        }
+        return total;
+    }
+
+}
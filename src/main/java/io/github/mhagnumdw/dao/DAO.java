@@ -5,6 +5,8 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityNotFoundException;
@@ -14,6 +16,7 @@ import javax.persistence.metamodel.SingularAttribute;
 
 import org.hibernate.annotations.NaturalId;
 
+import io.github.mhagnumdw.KeysetScrollStatus;
 import io.github.mhagnumdw.PaginationScrollStatus;
 import io.github.mhagnumdw.search.SearchAbstract;
 import io.github.mhagnumdw.search.SortOrder;
@@ -21,6 +24,31 @@ import io.github.mhagnumdw.util.Pair;
 
 public interface DAO {
 
+    /**
+     * Sufixo da named query de contagem que acompanha uma named query paginada.
+     * <p>
+     * Ex.: para a named query {@code Nota.ativas} a contagem é {@code Nota.ativas.count}, que deve retornar um único {@link Long}.
+     * </p>
+     *
+     * @see #getPaged(Class, String, Map, int, int)
+     */
+    public static final String COUNT_QUERY_SUFFIX = ".count";
+
+    /**
+     * <i>Fetch size</i> JDBC padrão dos métodos {@code stream(...)}.
+     */
+    public static final int DEFAULT_FETCH_SIZE = 500;
+
+    /**
+     * Quantidade máxima de valores por cláusula IN em {@link #getByIds(Collection, Class)} e
+     * {@link #getByDirectAttributeIn(SingularAttribute, Collection, Class)}; coleções maiores são buscadas em várias consultas.
+     * <p>
+     * Potência de 2 para casar com o <i>padding</i> do Hibernate ({@code hibernate.query.in_clause_parameter_padding}) e abaixo do limite de 1000
+     * expressões de alguns bancos.
+     * </p>
+     */
+    public static final int IN_CLAUSE_CHUNK_SIZE = 512;
+
     public EntityManager getEntityManager();
 
     /**
@@ -69,7 +97,15 @@ public interface DAO {
     public <T> T getById(Serializable id, Class<T> resultClass);
 
     /**
-     * Busca por uma coleção de ids.
+     * Busca por uma coleção de ids aproveitando o contexto de persistência e o cache de segundo nível.
+     * <p>
+     * Usa {@link org.hibernate.Session#byMultipleIds(Class)}: as entidades já carregadas na sessão ou presentes no cache de segundo nível não vão ao banco e
+     * apenas os ids restantes são buscados, em lotes de até {@link #IN_CLAUSE_CHUNK_SIZE}. O resultado segue a ordem de {@code ids}, ids repetidos são
+     * considerados uma vez e ids inexistentes são ignorados.
+     * </p>
+     * <p>
+     * Os ids são convertidos para o tipo do id da entidade (ex.: Integer para Long), sem perda: os que não podem ser representados são ignorados.
+     * </p>
      *
      * @param ids
      *            chaves primárias
@@ -101,6 +137,10 @@ public interface DAO {
      * <p>
      * Lógica: FROM resultClass e WHERE e.attribute in :values
      * </p>
+     * <p>
+     * Coleções grandes são divididas em consultas de até {@link #IN_CLAUSE_CHUNK_SIZE} valores. O resultado segue a ordem de {@code values} (entidades com
+     * o mesmo valor ficam juntas) e valores repetidos são considerados uma vez.
+     * </p>
      *
      * @param attributeToSearch
      *            atributo da entidade pelo qual será pesquisado
@@ -170,6 +210,18 @@ public interface DAO {
      */
     public <T> List<T> getAll(Class<T> resultClass);
 
+    /**
+     * Busca todas as entidades, usando ou não o <i>query cache</i> conforme {@code cacheHint}.
+     *
+     * @param resultClass
+     *            classe da entidade
+     * @param cacheHint
+     *            uso do <i>query cache</i> nesta chamada, sobrepõe a política {@link QueryCacheable} da entidade
+     *
+     * @return lista contendo as instâncias das entidades ou lista vazia se não existir entidade
+     */
+    public <T> List<T> getAll(Class<T> resultClass, QueryCacheHint cacheHint);
+
     /**
      * Busca todas as entidades fazendo ordenação.
      *
@@ -298,6 +350,14 @@ public interface DAO {
      */
     public <T> T getSingleResultByDirectAttribute(SingularAttribute<?, ?> attributeToSearch, Object value, Class<T> resultClass);
 
+    /**
+     * Igual a {@link #getSingleResultByDirectAttribute(SingularAttribute, Object, Class)}, usando ou não o <i>query cache</i> conforme {@code cacheHint}.
+     *
+     * @param cacheHint
+     *            uso do <i>query cache</i> nesta chamada, sobrepõe a política {@link QueryCacheable} da entidade
+     */
+    public <T> T getSingleResultByDirectAttribute(SingularAttribute<?, ?> attributeToSearch, Object value, Class<T> resultClass, QueryCacheHint cacheHint);
+
     /**
      * Busca, retornando um único resultado, por meio de um atributo da entidade.
      * <p>
@@ -489,6 +549,53 @@ public interface DAO {
      */
     public <E, K, T> Map<K, T> getAttributesMap(Class<E> entityClass, SingularAttribute<?, K> keyToReturn, SingularAttribute<?, T> valueToReturn);
 
+    /**
+     * Busca apenas os atributos {@code attributes} da entidade, convertendo cada linha num DTO.
+     * <p>
+     * Lógica: SELECT e.attr1, e.attr2, ... FROM entityClass e WHERE ... ORDER BY ...
+     * </p>
+     * <p>
+     * Nenhuma entidade é carregada: não há snapshot para <i>dirty checking</i>, o persistence context não cresce e colunas fora da projeção (ex.: LOBs)
+     * não são lidas. O DTO pode ser:
+     * <ul>
+     * <li>uma classe com construtor público cujos parâmetros seguem a ordem e os tipos de {@code attributes};</li>
+     * <li>uma interface com um <i>getter</i> para cada atributo de {@code attributes} (ex.: {@code getName()} para o atributo {@code name}).</li>
+     * </ul>
+     * </p>
+     *
+     * @param entityClass
+     *            classe da entidade
+     * @param dtoClass
+     *            classe ou interface do DTO
+     * @param attributes
+     *            atributos selecionados, na ordem do construtor do DTO
+     * @param params
+     *            condições (atributo = valor), pode ser nulo
+     * @param orderByAttributes
+     *            ordenação, pode ser nulo
+     *
+     * @return lista de DTOs ou lista vazia
+     *
+     * @throws IllegalArgumentException
+     *             se o DTO não for compatível com {@code attributes}
+     */
+    public <E, D> List<D> getProjection(Class<E> entityClass, Class<D> dtoClass, List<? extends SingularAttribute<?, ?>> attributes, Map<SingularAttribute<?, ?>, Object> params,
+            Map<SingularAttribute<?, ?>, SortOrder> orderByAttributes);
+
+    /**
+     * Igual a {@link #getProjection(Class, Class, List, Map, Map)}, mas os DTOs são lidos sob demanda de um cursor.
+     * <p>
+     * <b>O {@link Stream} deve ser fechado (try-with-resources) e consumido dentro da transação/unidade de trabalho corrente.</b>
+     * </p>
+     *
+     * @param fetchSize
+     *            quantidade de linhas trazidas do banco a cada ida, ex.: {@link #DEFAULT_FETCH_SIZE}
+     *
+     * @return stream de DTOs
+     */
+    public <E, D> Stream<D> streamProjection(Class<E> entityClass, Class<D> dtoClass, List<? extends SingularAttribute<?, ?>> attributes, Map<SingularAttribute<?, ?>, Object> params,
+            Map<SingularAttribute<?, ?>, SortOrder> orderByAttributes, int fetchSize);
+
     /**
      * Busca de acordo com a named query {@code namedQuery}.
      *
@@ -531,6 +638,14 @@ public interface DAO {
      */
     public <T> List<T> get(String namedQuery, Class<T> resultClass, Map<String, Object> params);
 
+    /**
+     * Igual a {@link #get(String, Class, Map)}, usando ou não o <i>query cache</i> conforme {@code cacheHint}.
+     *
+     * @param cacheHint
+     *            uso do <i>query cache</i> nesta chamada, sobrepõe a política {@link QueryCacheable} da entidade
+     */
+    public <T> List<T> get(String namedQuery, Class<T> resultClass, Map<String, Object> params, QueryCacheHint cacheHint);
+
     /**
      * Busca de acordo com a named query {@code namedQuery}.
      *
@@ -573,6 +688,34 @@ public interface DAO {
      */
     public <T> void processAllSave(Class<T> targetClass, Consumer<T> process);
 
+    /**
+     * Itera todas as entidades e para cada registro executa {@code process} <b>e salva o registro</b>, em blocos de {@code chunkSize} registros.
+     * <p>
+     * Ao fim de cada bloco é feito um flush e um clear do {@link EntityManager}, então a memória usada é proporcional a {@code chunkSize} e não ao
+     * total de registros. As entidades processadas em blocos anteriores ficam desanexadas.
+     * </p>
+     * <p>
+     * Sem {@code commitPerChunk} <b>deve ser executado dentro de uma transação</b>. Com {@code commitPerChunk} as entidades são lidas em páginas
+     * ordenadas pelo id, cada uma na sua própria transação, então <b>não pode haver transação ativa</b>.
+     * </p>
+     *
+     * @param targetClass
+     *            classe da entidade
+     * @param process
+     *            lógica de negócio para ser executada para cada registro
+     * @param chunkSize
+     *            quantidade de registros por bloco
+     * @param commitPerChunk
+     *            se {@code true} cada bloco é executado e commitado na sua própria transação; um erro desfaz apenas o bloco corrente
+     * @param progress
+     *            recebe a quantidade de registros processados até o momento ao fim de cada bloco, pode ser nulo
+     *
+     * @return quantidade de registros processados
+     *
+     * @see #processAllSave(Class, Consumer)
+     */
+    public <T> long processAllSave(Class<T> targetClass, Consumer<T> process, int chunkSize, boolean commitPerChunk, LongConsumer progress);
+
     /**
      * Itera de acordo com a named query {@code namedQuery} e para cada registro executa {@code process}.
      *
@@ -601,6 +744,94 @@ public interface DAO {
      */
     public <T> void processSave(String namedQuery, Map<String, Object> params, Consumer<T> process);
 
+    /**
+     * Itera de acordo com a named query {@code namedQuery} e para cada registro executa {@code process} <b>e salva o registro</b>, em blocos de
+     * {@code chunkSize} registros. <b>Deve ser executado dentro de uma transação</b>: o cursor da named query fica aberto durante toda a execução,
+     * então não há commit por bloco.
+     *
+     * @param namedQuery
+     *            nome da {@link NamedQuery}
+     * @param params
+     *            parâmetros/condições
+     * @param process
+     *            lógica de negócio para ser executada para cada registro
+     * @param chunkSize
+     *            quantidade de registros por bloco
+     * @param progress
+     *            recebe a quantidade de registros processados até o momento ao fim de cada bloco, pode ser nulo
+     *
+     * @return quantidade de registros processados
+     *
+     * @see #processAllSave(Class, Consumer, int, boolean, LongConsumer)
+     */
+    public <T> long processSave(String namedQuery, Map<String, Object> params, Consumer<T> process, int chunkSize, LongConsumer progress);
+
+    /**
+     * Retorna todas as entidades como um {@link Stream} lido sob demanda de um cursor, usando {@link #DEFAULT_FETCH_SIZE}.
+     *
+     * @param resultClass
+     *            classe da entidade
+     *
+     * @return stream das entidades
+     *
+     * @see #stream(Class, int)
+     */
+    public <T> Stream<T> stream(Class<T> resultClass);
+
+    /**
+     * Retorna todas as entidades como um {@link Stream} lido sob demanda de um cursor.
+     * <p>
+     * Diferente de {@link #getAll(Class)} nada é acumulado em memória: as entidades são carregadas como somente-leitura e desanexadas do
+     * {@link EntityManager} logo depois de processadas pela operação terminal, então associações <i>lazy</i> devem ser buscadas na própria query. <b>O stream deve ser
+     * fechado</b> (try-with-resources) para liberar o cursor caso não seja consumido até o fim.
+     * </p>
+     *
+     * @param resultClass
+     *            classe da entidade
+     * @param fetchSize
+     *            quantidade de linhas trazidas do banco a cada ida ao JDBC
+     *
+     * @return stream das entidades
+     */
+    public <T> Stream<T> stream(Class<T> resultClass, int fetchSize);
+
+    /**
+     * Retorna o resultado da named query {@code namedQuery} como um {@link Stream} lido sob demanda de um cursor.
+     *
+     * @param namedQuery
+     *            nome da {@link NamedQuery}
+     * @param params
+     *            parâmetros/condições
+     * @param resultClass
+     *            classe do resultado
+     * @param fetchSize
+     *            quantidade de linhas trazidas do banco a cada ida ao JDBC
+     *
+     * @return stream do resultado
+     *
+     * @see #stream(Class, int)
+     */
+    public <T> Stream<T> stream(String namedQuery, Map<String, Object> params, Class<T> resultClass, int fetchSize);
+
+    /**
+     * Retorna as entidades filtradas por atributos como um {@link Stream} lido sob demanda de um cursor.
+     * <p>
+     * Lógica: FROM resultClass e WHERE e.attribute1 = :value1 AND ... AND e.attributeN = :valueN
+     * </p>
+     *
+     * @param params
+     *            mapa contendo os atributos da entidades e seus respectivos valores para servir de filtro (são as condições de pesquisa)
+     * @param resultClass
+     *            classe da entidade
+     * @param fetchSize
+     *            quantidade de linhas trazidas do banco a cada ida ao JDBC
+     *
+     * @return stream das entidades
+     *
+     * @see #stream(Class, int)
+     */
+    public <T> Stream<T> stream(Map<SingularAttribute<?, ?>, Object> params, Class<T> resultClass, int fetchSize);
+
     /**
      * Busca de acordo com a query nativa {@code nativeQuery} usando um resultSetMapping.
      *
@@ -679,6 +910,10 @@ public interface DAO {
 
     /**
      * Busca paginada com controle de paginação.
+     * <p>
+     * O total de registros vem da named query {@code namedQuery + }{@link #COUNT_QUERY_SUFFIX}, quando declarada, que recebe os mesmos {@code params}. Se não
+     * existir, a contagem é derivada da HQL de {@code namedQuery} (sem o ORDER BY) e, em último caso, o resultado inteiro é percorrido para contar.
+     * </p>
      *
      * @param resultClass
      *            tipo do retorno
@@ -695,6 +930,35 @@ public interface DAO {
      */
     public <T> Pair<List<T>, PaginationScrollStatus> getPaged(Class<T> resultClass, String namedQuery, Map<String, Object> params, int page, int pageSize);
 
+    /**
+     * Busca paginada por chave (<i>keyset</i> / <i>seek</i>): em vez de descartar {@code page * pageSize} registros com OFFSET, filtra a partir dos
+     * valores da última linha vista, então o custo de uma página é o mesmo seja ela a 1ª ou a 10.000ª.
+     * <p>
+     * O id da entidade é sempre adicionado ao final da ordenação como critério de desempate. Os atributos de ordenação devem ser obrigatórios no
+     * mapeamento (não {@link SingularAttribute#isOptional() opcionais}) e, para o ganho de performance, cobertos por um índice. O cursor só vale para
+     * as mesmas ordenação e condições ({@code params}) da busca que o gerou.
+     * </p>
+     *
+     * @param resultClass
+     *            classe da entidade
+     * @param params
+     *            parâmetros/condições, pode ser nulo
+     * @param orderByAttributes
+     *            atributos que ditam a ordem, de preferência um {@link java.util.LinkedHashMap}; pode ser nulo (ordena só pelo id)
+     * @param cursor
+     *            {@link KeysetScrollStatus#getProximoCursor()} ou {@link KeysetScrollStatus#getCursorAnterior()} da busca anterior; {@code null} para
+     *            a primeira página
+     * @param pageSize
+     *            quantidade de registros por página
+     *
+     * @return um {@link Pair} contendo o resultado ordenado e os cursores de navegação
+     *
+     * @throws IllegalArgumentException
+     *             se algum atributo de ordenação for opcional, ou se o cursor for inválido ou não corresponder à ordenação ou às condições
+     */
+    public <T> Pair<List<T>, KeysetScrollStatus> getPagedByKeyset(Class<T> resultClass, Map<SingularAttribute<?, ?>, Object> params,
+            Map<SingularAttribute<?, ?>, SortOrder> orderByAttributes, String cursor, int pageSize);
+
 //    /**
 //     * Busca paginada com controle de paginação.
 //     *
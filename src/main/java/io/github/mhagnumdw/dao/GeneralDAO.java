@@ -1,31 +1,58 @@
 package io.github.mhagnumdw.dao;
 
 import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityNotFoundException;
+import javax.persistence.EntityTransaction;
 import javax.persistence.NoResultException;
 import javax.persistence.Query;
+import javax.persistence.Tuple;
 import javax.persistence.TypedQuery;
 import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
 import javax.persistence.metamodel.SingularAttribute;
 
+import org.hibernate.Hibernate;
 import org.hibernate.ScrollMode;
 import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 
+import com.google.common.collect.Lists;
+import com.google.common.hash.Hashing;
+import com.google.common.primitives.Primitives;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 
+import io.github.mhagnumdw.KeysetScrollStatus;
 import io.github.mhagnumdw.PaginationScrollStatus;
+import io.github.mhagnumdw.dao.QueryTemplateCache.Operation;
+import io.github.mhagnumdw.helper.EntityMetadata;
+import io.github.mhagnumdw.helper.EntityMetadataRegistry;
+import io.github.mhagnumdw.helper.UnitOfWorkHelper;
 import io.github.mhagnumdw.search.SortOrder;
 import io.github.mhagnumdw.util.HibernateUtil;
 import io.github.mhagnumdw.util.Pair;
@@ -47,8 +74,25 @@ public class GeneralDAO implements DAO {
     @Inject
     private Provider<EntityManager> emProvider;
 
+    @Inject
+    private CountQueryExecutor countQueryExecutor;
+
+    @Inject
+    private NegativeLookupCache negativeLookupCache;
+
+    @Inject
+    private QueryTemplateCache queryTemplates;
+
+    /**
+     * Retorna o {@link EntityManager} da thread.
+     * <p>
+     * Se não houver {@code UnitOfWork} em andamento, o {@code Provider} do guice-persist inicia um e abre o {@link EntityManager} neste momento
+     * (modo lazy do {@link io.github.mhagnumdw.filter.PersistFilter}).
+     * </p>
+     */
     @Override
     public EntityManager getEntityManager() {
+        UnitOfWorkHelper.checkPersistenceAllowed();
         return emProvider.get();
     }
 
@@ -82,10 +126,40 @@ public class GeneralDAO implements DAO {
      */
     @Override
     public <T> List<T> getByIds(Collection<?> ids, Class<T> resultClass) {
-        final String qlString = "FROM " + resultClass.getName() + " e WHERE e.id in :ids";
-        TypedQuery<T> query = getEntityManager().createQuery(qlString, resultClass);
-        query.setParameter("ids", ids);
-        return query.getResultList();
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>(0);
+        }
+        final Class<?> idType = Primitives.wrap(getEntityManager().getMetamodel().entity(resultClass).getIdType().getJavaType());
+        final Map<Object, Serializable> distinctIds = new LinkedHashMap<>(ids.size() * 4 / 3 + 1);
+        for (Object id : ids) {
+            final Object typedId;
+            try {
+                typedId = toKeyType(id, idType);
+            } catch (ArithmeticException | NumberFormatException e) {
+                // nenhuma entidade pode ter esse id
+                continue;
+            }
+            if (typedId != null) {
+                distinctIds.putIfAbsent(matchKey(typedId), (Serializable) typedId);
+            }
+        }
+        if (distinctIds.isEmpty()) {
+            return new ArrayList<>(0);
+        }
+        // @formatter:off
+        final List<T> loaded = getSession().byMultipleIds(resultClass)
+                .enableSessionCheck(true)
+                .enableOrderedReturn(true)
+                .withBatchSize(IN_CLAUSE_CHUNK_SIZE)
+                .multiLoad(new ArrayList<>(distinctIds.values()));
+        // @formatter:on
+        final List<T> result = new ArrayList<>(loaded.size());
+        for (T entity : loaded) {
+            if (entity != null) {
+                result.add(entity);
+            }
+        }
+        return result;
     }
 
     /**
@@ -93,7 +167,7 @@ public class GeneralDAO implements DAO {
      */
     @Override
     public <T> List<T> getByDirectAttribute(SingularAttribute<?, ?> attributeToSearch, Object value, Class<T> resultClass) {
-        final String qlString = "FROM " + resultClass.getName() + " e WHERE e." + attributeToSearch.getName() + " = :value";
+        final String qlString = queryTemplates.get(Operation.GET_BY_ATTRIBUTE, resultClass, attributeToSearch, null, 0, GeneralDAO::hqlGetByAttribute);
         TypedQuery<T> query = getEntityManager().createQuery(qlString, resultClass);
         query.setParameter("value", value);
         return query.getResultList();
@@ -104,10 +178,138 @@ public class GeneralDAO implements DAO {
      */
     @Override
     public <E, T> List<E> getByDirectAttributeIn(SingularAttribute<?, T> attributeToSearch, Collection<T> values, Class<E> resultClass) {
-        final String qlString = "FROM " + resultClass.getName() + " e WHERE e." + attributeToSearch.getName() + " in :values";
-        TypedQuery<E> query = getEntityManager().createQuery(qlString, resultClass);
-        query.setParameter("values", values);
-        return query.getResultList();
+        final String qlString = queryTemplates.get(Operation.GET_BY_ATTRIBUTE_IN, resultClass, attributeToSearch, null, 0, GeneralDAO::hqlGetByAttributeIn);
+        return getByKeysInChunks(qlString, values, attributeToSearch.getJavaType(), resultClass);
+    }
+
+    /**
+     * Executa {@code qlString} - que deve selecionar a chave e a entidade e ter o parâmetro {@code :values} - em blocos de até
+     * {@link DAO#IN_CLAUSE_CHUNK_SIZE} chaves, devolvendo as entidades na ordem de {@code keys}.
+     * <p>
+     * Blocos de tamanho fixo, junto com o <i>padding</i> das listas do Hibernate (hibernate.query.in_clause_parameter_padding), mantêm poucas variações
+     * de SQL e reaproveitam o plano da consulta.
+     * </p>
+     * <p>
+     * As chaves são convertidas para {@code keyType} antes da consulta (ex.: Integer para Long), sem perda: as que não podem ser representadas em
+     * {@code keyType} (ex.: 2^40 para uma coluna Integer, 1.5 para Long) são ignoradas. São comparadas por valor (BigDecimal sem considerar a
+     * escala, datas pelo instante). Linhas cuja chave ainda assim não corresponde a nenhuma das informadas (ex.: collation case-insensitive) vão
+     * para o fim da lista, na ordem em que vieram do banco.
+     * </p>
+     */
+    private <E> List<E> getByKeysInChunks(String qlString, Collection<?> keys, Class<?> keyType, Class<E> resultClass) {
+        if (keys == null || keys.isEmpty()) {
+            return new ArrayList<>(0);
+        }
+        final Map<Object, Object> distinctKeys = new LinkedHashMap<>(keys.size() * 4 / 3 + 1);
+        for (Object key : keys) {
+            final Object typedKey;
+            try {
+                typedKey = toKeyType(key, Primitives.wrap(keyType));
+            } catch (ArithmeticException | NumberFormatException e) {
+                // nenhuma linha pode ter essa chave
+                continue;
+            }
+            distinctKeys.putIfAbsent(matchKey(typedKey), typedKey);
+        }
+        final Map<Object, List<E>> byKey = new LinkedHashMap<>(distinctKeys.size() * 4 / 3 + 1);
+        for (List<?> chunk : Lists.partition(new ArrayList<>(distinctKeys.values()), IN_CLAUSE_CHUNK_SIZE)) {
+            TypedQuery<Object[]> query = getEntityManager().createQuery(qlString, Object[].class);
+            query.setParameter("values", chunk);
+            for (Object[] row : query.getResultList()) {
+                byKey.computeIfAbsent(matchKey(row[0]), k -> new ArrayList<>(1)).add(resultClass.cast(row[1]));
+            }
+        }
+        final List<E> result = new ArrayList<>(distinctKeys.size());
+        for (Object key : distinctKeys.keySet()) {
+            final List<E> entities = byKey.remove(key);
+            if (entities != null) {
+                result.addAll(entities);
+            }
+        }
+        byKey.values().forEach(result::addAll);
+        return result;
+    }
+
+    /**
+     * Converte {@code key} para {@code keyType} quando ambos são números ou datas, senão retorna {@code key}. A conversão de números é exata.
+     *
+     * @throws ArithmeticException
+     *             se o número não pode ser representado em {@code keyType} sem perda (ex.: 2^40 para Integer, 1.5 para Long)
+     * @throws NumberFormatException
+     *             se o número é NaN ou infinito
+     */
+    private static Object toKeyType(Object key, Class<?> keyType) {
+        if (key == null || keyType.isInstance(key)) {
+            return key;
+        }
+        if (key instanceof Number) {
+            final BigDecimal number = toBigDecimal((Number) key);
+            if (keyType == Long.class) {
+                return number.longValueExact();
+            } else if (keyType == Integer.class) {
+                return number.intValueExact();
+            } else if (keyType == Short.class) {
+                return number.shortValueExact();
+            } else if (keyType == Byte.class) {
+                return number.byteValueExact();
+            } else if (keyType == Double.class) {
+                final double value = number.doubleValue();
+                if (Double.isInfinite(value) || new BigDecimal(value).compareTo(number) != 0) {
+                    throw new ArithmeticException("Chave não representável como Double: " + key);
+                }
+                return value;
+            } else if (keyType == Float.class) {
+                final float value = number.floatValue();
+                if (Float.isInfinite(value) || new BigDecimal(value).compareTo(number) != 0) {
+                    throw new ArithmeticException("Chave não representável como Float: " + key);
+                }
+                return value;
+            } else if (keyType == BigDecimal.class) {
+                return number;
+            } else if (keyType == BigInteger.class) {
+                return number.toBigIntegerExact();
+            }
+        } else if (key instanceof Date) {
+            final long time = ((Date) key).getTime();
+            if (keyType == Timestamp.class) {
+                return new Timestamp(time);
+            } else if (keyType == java.sql.Date.class) {
+                return new java.sql.Date(time);
+            } else if (keyType == Date.class) {
+                return new Date(time);
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Valor exato de {@code number}: Double e Float pelo valor binário, não pela representação decimal.
+     */
+    private static BigDecimal toBigDecimal(Number number) {
+        if (number instanceof BigDecimal) {
+            return (BigDecimal) number;
+        } else if (number instanceof BigInteger) {
+            return new BigDecimal((BigInteger) number);
+        } else if (number instanceof Double || number instanceof Float) {
+            return new BigDecimal(number.doubleValue());
+        } else if (number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte) {
+            return BigDecimal.valueOf(number.longValue());
+        }
+        return new BigDecimal(number.toString());
+    }
+
+    /**
+     * Chave usada para casar a chave informada com a que veio do banco: BigDecimal sem a escala, datas (Date/Timestamp) pelo instante.
+     */
+    private static Object matchKey(Object key) {
+        if (key instanceof BigDecimal) {
+            final BigDecimal decimal = (BigDecimal) key;
+            return decimal.signum() == 0 ? BigDecimal.ZERO : decimal.stripTrailingZeros();
+        }
+        if (key instanceof Date) {
+            return ((Date) key).getTime();
+        }
+        return key;
     }
 
     /**
@@ -134,7 +336,7 @@ public class GeneralDAO implements DAO {
      */
     @Override
     public <T> List<T> getByDirectAttributeStartWith(SingularAttribute<?, String> attributeToSearch, String value, Class<T> resultClass) {
-        final String qlString = "FROM " + resultClass.getName() + " e WHERE e." + attributeToSearch.getName() + " like :value";
+        final String qlString = queryTemplates.get(Operation.GET_BY_ATTRIBUTE_START_WITH, resultClass, attributeToSearch, null, 0, GeneralDAO::hqlGetByAttributeStartWith);
         TypedQuery<T> query = getEntityManager().createQuery(qlString, resultClass);
         query.setParameter("value", value + "%");
         return query.getResultList();
@@ -145,8 +347,16 @@ public class GeneralDAO implements DAO {
      */
     @Override
     public <T> List<T> getAll(Class<T> resultClass) {
-        final String qlString = "FROM " + resultClass.getName();
-        TypedQuery<T> query = getEntityManager().createQuery(qlString, resultClass);
+        return getAll(resultClass, QueryCacheHint.of(resultClass));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> List<T> getAll(Class<T> resultClass, QueryCacheHint cacheHint) {
+        final String qlString = queryTemplates.get(Operation.GET_ALL, resultClass, null, null, 0, GeneralDAO::hqlGetAll);
+        TypedQuery<T> query = cacheHint.applyTo(getEntityManager().createQuery(qlString, resultClass));
         return query.getResultList();
     }
 
@@ -163,13 +373,9 @@ public class GeneralDAO implements DAO {
      */
     @Override
     public <T> List<T> getAll(Class<T> resultClass, SingularAttribute<?, ?> orderByAttribute, SortOrder sortOrder, boolean lowerInOrderBy) {
-        final String qlString;
-        if (lowerInOrderBy) {
-            qlString = "FROM " + resultClass.getName() + " e ORDER BY lower(e." + orderByAttribute.getName() + ") " + sortOrder.getNome();
-        } else {
-            qlString = "FROM " + resultClass.getName() + " e ORDER BY e." + orderByAttribute.getName() + " " + sortOrder.getNome();
-        }
-        TypedQuery<T> query = getEntityManager().createQuery(qlString, resultClass);
+        final String qlString = queryTemplates.get(Operation.GET_ALL_ORDERED, resultClass, orderByAttribute, null, orderFlags(sortOrder, lowerInOrderBy),
+                GeneralDAO::hqlGetAllOrdered);
+        TypedQuery<T> query = QueryCacheHint.of(resultClass).applyTo(getEntityManager().createQuery(qlString, resultClass));
         return query.getResultList();
     }
 
@@ -178,7 +384,7 @@ public class GeneralDAO implements DAO {
      */
     @Override
     public <T> T getSingleResult(String namedQuery, Class<T> resultClass) {
-        TypedQuery<T> query = getEntityManager().createNamedQuery(namedQuery, resultClass);
+        TypedQuery<T> query = createNamedQuery(namedQuery, resultClass);
         return getSingleResult(query);
     }
 
@@ -187,7 +393,7 @@ public class GeneralDAO implements DAO {
      */
     @Override
     public <T> T getSingleResult(String namedQuery, Map<SingularAttribute<?, ?>, Object> params, Class<T> resultClass) {
-        TypedQuery<T> query = getEntityManager().createNamedQuery(namedQuery, resultClass);
+        TypedQuery<T> query = createNamedQuery(namedQuery, resultClass);
         HibernateUtil.setParameters(query, params);
         return getSingleResult(query);
     }
@@ -197,7 +403,7 @@ public class GeneralDAO implements DAO {
      */
     @Override
     public <T> T getSingleResult(String namedQuery, Class<T> resultClass, Map<String, Object> params) {
-        TypedQuery<T> query = getEntityManager().createNamedQuery(namedQuery, resultClass);
+        TypedQuery<T> query = createNamedQuery(namedQuery, resultClass);
         HibernateUtil.setParametersString(query, params);
         return getSingleResult(query);
     }
@@ -238,10 +444,23 @@ public class GeneralDAO implements DAO {
      */
     @Override
     public <T> T getSingleResultByDirectAttribute(SingularAttribute<?, ?> attributeToSearch, Object value, Class<T> resultClass) {
-        final String qlString = "FROM " + resultClass.getName() + " e WHERE e." + attributeToSearch.getName() + " = :value";
-        TypedQuery<T> query = getEntityManager().createQuery(qlString, resultClass);
+        return getSingleResultByDirectAttribute(attributeToSearch, value, resultClass, QueryCacheHint.of(resultClass));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T getSingleResultByDirectAttribute(SingularAttribute<?, ?> attributeToSearch, Object value, Class<T> resultClass, QueryCacheHint cacheHint) {
+        if (negativeLookupCache.isAbsent(resultClass, attributeToSearch, value)) {
+            return null;
+        }
+        final String qlString = queryTemplates.get(Operation.GET_BY_ATTRIBUTE, resultClass, attributeToSearch, null, 0, GeneralDAO::hqlGetByAttribute);
+        TypedQuery<T> query = cacheHint.applyTo(getEntityManager().createQuery(qlString, resultClass));
         query.setParameter("value", value);
-        return getSingleResult(query);
+        final T result = getSingleResult(query);
+        negativeLookupCache.recordLookup(resultClass, attributeToSearch, value, result != null);
+        return result;
     }
 
     /**
@@ -249,16 +468,16 @@ public class GeneralDAO implements DAO {
      */
     @Override
     public <T> T getSingleResultByDirectAttribute(SingularAttribute<?, ?> attributeToSearch, Object value, Class<T> resultClass, boolean lowerInSearch) {
-        final String where;
-        if (lowerInSearch) {
-            where = "WHERE lower(e." + attributeToSearch.getName() + ") = lower(:value) ";
-        } else {
-            where = "WHERE e." + attributeToSearch.getName() + " = :value ";
+        if (negativeLookupCache.isAbsent(resultClass, attributeToSearch, value)) {
+            return null;
         }
-        final String qlString = "FROM " + resultClass.getName() + " e " + where;
-        TypedQuery<T> query = getEntityManager().createQuery(qlString, resultClass);
+        final String qlString = queryTemplates.get(Operation.SINGLE_BY_ATTRIBUTE, resultClass, attributeToSearch, null, lowerInSearch ? QueryTemplateCache.LOWER : 0,
+                GeneralDAO::hqlSingleByAttribute);
+        TypedQuery<T> query = QueryCacheHint.of(resultClass).applyTo(getEntityManager().createQuery(qlString, resultClass));
         query.setParameter("value", value);
-        return getSingleResult(query);
+        final T result = getSingleResult(query);
+        negativeLookupCache.recordLookup(resultClass, attributeToSearch, value, result != null);
+        return result;
     }
 
     /**
@@ -282,18 +501,24 @@ public class GeneralDAO implements DAO {
      */
     @Override
     public <E> boolean exist(Class<E> entityClass, Map<SingularAttribute<?, ?>, Object> attributesToSearch) {
-        final String where = buildWhere("e", attributesToSearch);
-
-        // @formatter:off
-        final String qlString =
-                "SELECT CASE WHEN (COUNT(*) > 0) THEN true ELSE false END "
-                + "FROM " + entityClass.getName() + " e "
-                + where;
-        // @formatter:on
+        if (attributesToSearch != null) {
+            for (Map.Entry<SingularAttribute<?, ?>, Object> entry : attributesToSearch.entrySet()) {
+                if (negativeLookupCache.isAbsent(entityClass, entry.getKey(), entry.getValue())) {
+                    return false;
+                }
+            }
+        }
 
+        final String qlString = queryTemplates.getWithConditions(Operation.EXIST_BY_ATTRIBUTES, entityClass, attributesToSearch, null, 0, GeneralDAO::hqlExistByAttributes);
         final TypedQuery<Boolean> query = getEntityManager().createQuery(qlString, Boolean.class);
         associarParametros(query, attributesToSearch);
-        return getSingleResult(query);
+        final boolean exists = getSingleResult(query);
+        if (attributesToSearch != null && attributesToSearch.size() == 1) {
+            // com mais de um atributo "não encontrado" não indica falso positivo de nenhum deles
+            final Map.Entry<SingularAttribute<?, ?>, Object> entry = attributesToSearch.entrySet().iterator().next();
+            negativeLookupCache.recordLookup(entityClass, entry.getKey(), entry.getValue(), exists);
+        }
+        return exists;
     }
 
     /**
@@ -301,25 +526,23 @@ public class GeneralDAO implements DAO {
      */
     @Override
     public <E> boolean exist(Class<E> entityClass, SingularAttribute<?, ?> attributeToSearch, Object value, boolean lowerOrTruncInSearch) {
-        String where = "WHERE e." + attributeToSearch.getName() + " = :value ";
+        if (negativeLookupCache.isAbsent(entityClass, attributeToSearch, value)) {
+            return false;
+        }
+        int flags = 0;
         if (lowerOrTruncInSearch) {
             if (attributeToSearch.getBindableJavaType().isAssignableFrom(CharSequence.class)) {
-                where = "WHERE lower(e." + attributeToSearch.getName() + ") = lower(:value) ";
+                flags = QueryTemplateCache.LOWER;
             } else if (attributeToSearch.getBindableJavaType().isAssignableFrom(Date.class)) {
-                where = "WHERE trunc(e." + attributeToSearch.getName() + ") = trunc(:value) ";
+                flags = QueryTemplateCache.TRUNC;
             }
         }
-
-        // @formatter:off
-        final String qlString =
-                "SELECT CASE WHEN (COUNT(*) > 0) THEN true ELSE false END "
-                + "FROM " + entityClass.getName() + " e "
-                + where;
-        // @formatter:on
-
+        final String qlString = queryTemplates.get(Operation.EXIST, entityClass, attributeToSearch, null, flags, GeneralDAO::hqlExist);
         TypedQuery<Boolean> query = getEntityManager().createQuery(qlString, Boolean.class);
         query.setParameter("value", value);
-        return getSingleResult(query);
+        final boolean exists = getSingleResult(query);
+        negativeLookupCache.recordLookup(entityClass, attributeToSearch, value, exists);
+        return exists;
     }
 
     /**
@@ -343,12 +566,8 @@ public class GeneralDAO implements DAO {
      */
     @Override
     public <E, T> List<T> getAttributes(Class<E> entityClass, SingularAttribute<?, T> attributeToReturn, SingularAttribute<?, ?> orderByAttribute, SortOrder sortOrder, boolean lowerInOrderBy) {
-        String qlString = "SELECT e." + attributeToReturn.getName() + " FROM " + entityClass.getName() + " e ";
-        if (lowerInOrderBy) {
-            qlString += " ORDER BY lower(e." + orderByAttribute.getName() + ") " + sortOrder.getNome();
-        } else {
-            qlString += " ORDER BY e." + orderByAttribute.getName() + " " + sortOrder.getNome();
-        }
+        final String qlString = queryTemplates.get(Operation.GET_ATTRIBUTES_ORDERED, entityClass, attributeToReturn, orderByAttribute, orderFlags(sortOrder, lowerInOrderBy),
+                GeneralDAO::hqlGetAttributesOrdered);
         TypedQuery<T> query = getEntityManager().createQuery(qlString, attributeToReturn.getBindableJavaType());
         return query.getResultList();
     }
@@ -358,7 +577,7 @@ public class GeneralDAO implements DAO {
      */
     @Override
     public <E, T> List<T> getAttributes(Class<E> entityClass, Attribute<?, T> attributeToReturn, SingularAttribute<?, ?> attributeToSearch, Object valueToSearch) {
-        final String qlString = "SELECT e." + attributeToReturn.getName() + " FROM " + entityClass.getName() + " e WHERE e." + attributeToSearch.getName() + " = :valueToSearch";
+        final String qlString = queryTemplates.get(Operation.GET_ATTRIBUTES_WHERE, entityClass, attributeToReturn, attributeToSearch, 0, GeneralDAO::hqlGetAttributesWhere);
         TypedQuery<T> query = getEntityManager().createQuery(qlString, attributeToReturn.getJavaType());
         query.setParameter("valueToSearch", valueToSearch);
         return query.getResultList();
@@ -369,7 +588,7 @@ public class GeneralDAO implements DAO {
      */
     @Override
     public <E, T> T getAttribute(Class<E> entityClass, Attribute<?, T> attributeToReturn, SingularAttribute<?, ?> attributeToSearch, Object valueToSearch) {
-        final String qlString = "SELECT e." + attributeToReturn.getName() + " FROM " + entityClass.getName() + " e WHERE e." + attributeToSearch.getName() + " = :valueToSearch";
+        final String qlString = queryTemplates.get(Operation.GET_ATTRIBUTES_WHERE, entityClass, attributeToReturn, attributeToSearch, 0, GeneralDAO::hqlGetAttributesWhere);
         TypedQuery<T> query = getEntityManager().createQuery(qlString, attributeToReturn.getJavaType());
         query.setParameter("valueToSearch", valueToSearch);
         return getSingleResult(query);
@@ -380,17 +599,39 @@ public class GeneralDAO implements DAO {
      */
     @Override
     public <E, K, T> Map<K, T> getAttributesMap(Class<E> entityClass, SingularAttribute<?, K> keyToReturn, SingularAttribute<?, T> valueToReturn) {
-        final String qlString = "SELECT e." + keyToReturn.getName() + ", e." + valueToReturn.getName() + " FROM " + entityClass.getName() + " e";
+        final String qlString = queryTemplates.get(Operation.GET_ATTRIBUTES_MAP, entityClass, keyToReturn, valueToReturn, 0, GeneralDAO::hqlGetAttributesMap);
         final List<Object[]> raw = getEntityManager().createQuery(qlString, Object[].class).getResultList();
         return (Map<K, T>) raw.stream().collect(Collectors.toMap(row -> row[0], row -> row[1]));
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E, D> List<D> getProjection(Class<E> entityClass, Class<D> dtoClass, List<? extends SingularAttribute<?, ?>> attributes, Map<SingularAttribute<?, ?>, Object> params,
+            Map<SingularAttribute<?, ?>, SortOrder> orderByAttributes) {
+        final ProjectionMapper<D> mapper = ProjectionMapper.of(dtoClass, attributes);
+        return createProjectionQuery(entityClass, attributes, params, orderByAttributes).getResultList().stream().map(mapper).collect(Collectors.toList());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E, D> Stream<D> streamProjection(Class<E> entityClass, Class<D> dtoClass, List<? extends SingularAttribute<?, ?>> attributes,
+            Map<SingularAttribute<?, ?>, Object> params, Map<SingularAttribute<?, ?>, SortOrder> orderByAttributes, int fetchSize) {
+        final ProjectionMapper<D> mapper = ProjectionMapper.of(dtoClass, attributes);
+        org.hibernate.query.Query<Tuple> query = createProjectionQuery(entityClass, attributes, params, orderByAttributes);
+        query.setFetchSize(fetchSize);
+        return query.stream().map(mapper);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public <T> List<T> get(String namedQuery, Class<T> resultClass) {
-        TypedQuery<T> query = getEntityManager().createNamedQuery(namedQuery, resultClass);
+        TypedQuery<T> query = createNamedQuery(namedQuery, resultClass);
         return query.getResultList();
     }
 
@@ -399,7 +640,7 @@ public class GeneralDAO implements DAO {
      */
     @Override
     public <T> List<T> get(String namedQuery, Map<SingularAttribute<?, ?>, Object> params, Class<T> resultClass) {
-        TypedQuery<T> query = getEntityManager().createNamedQuery(namedQuery, resultClass);
+        TypedQuery<T> query = createNamedQuery(namedQuery, resultClass);
         HibernateUtil.setParameters(query, params);
         return query.getResultList();
     }
@@ -409,7 +650,15 @@ public class GeneralDAO implements DAO {
      */
     @Override
     public <T> List<T> get(String namedQuery, Class<T> resultClass, Map<String, Object> params) {
-        TypedQuery<T> query = getEntityManager().createNamedQuery(namedQuery, resultClass);
+        return get(namedQuery, resultClass, params, QueryCacheHint.of(resultClass));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> List<T> get(String namedQuery, Class<T> resultClass, Map<String, Object> params, QueryCacheHint cacheHint) {
+        TypedQuery<T> query = cacheHint.applyTo(getEntityManager().createNamedQuery(namedQuery, resultClass));
         HibernateUtil.setParametersString(query, params);
         return query.getResultList();
     }
@@ -418,7 +667,7 @@ public class GeneralDAO implements DAO {
      * {@inheritDoc}
      */
     public <T> List<T> get(String namedQuery, Class<T> resultClass, Map<String, Object> params, int maxResult) {
-        TypedQuery<T> query = getEntityManager().createNamedQuery(namedQuery, resultClass);
+        TypedQuery<T> query = createNamedQuery(namedQuery, resultClass);
         HibernateUtil.setParametersString(query, params);
         query.setMaxResults(maxResult);
         return query.getResultList();
@@ -429,7 +678,7 @@ public class GeneralDAO implements DAO {
      */
     @Override
     public <T> void processAll(Class<T> targetClass, Consumer<T> process) {
-        final String qlString = "FROM " + targetClass.getName();
+        final String qlString = queryTemplates.get(Operation.GET_ALL, targetClass, null, null, 0, GeneralDAO::hqlGetAll);
         org.hibernate.query.Query<T> query = getSession().createQuery(qlString);
         process(query, process);
     }
@@ -439,11 +688,23 @@ public class GeneralDAO implements DAO {
      */
     @Override
     public <T> void processAllSave(Class<T> targetClass, Consumer<T> process) {
-        final String qlString = "FROM " + targetClass.getName();
+        final String qlString = queryTemplates.get(Operation.GET_ALL, targetClass, null, null, 0, GeneralDAO::hqlGetAll);
         org.hibernate.query.Query<T> query = getSession().createQuery(qlString);
         persist(query, process);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> long processAllSave(Class<T> targetClass, Consumer<T> process, int chunkSize, boolean commitPerChunk, LongConsumer progress) {
+        if (commitPerChunk) {
+            return persistTransactionPerChunk(targetClass, process, chunkSize, progress);
+        }
+        org.hibernate.query.Query<T> query = getSession().createQuery(queryTemplates.get(Operation.GET_ALL, targetClass, null, null, 0, GeneralDAO::hqlGetAll), targetClass);
+        return persist(query, process, chunkSize, progress);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -473,6 +734,95 @@ public class GeneralDAO implements DAO {
         persist(query, process);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> long processSave(String namedQuery, Map<String, Object> params, Consumer<T> process, int chunkSize, LongConsumer progress) {
+        org.hibernate.query.Query<T> query = getSession().getNamedQuery(namedQuery);
+        HibernateUtil.setParametersString(query, params);
+        return persist(query, process, chunkSize, progress);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> Stream<T> stream(Class<T> resultClass) {
+        return stream(resultClass, DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> Stream<T> stream(Class<T> resultClass, int fetchSize) {
+        org.hibernate.query.Query<T> query = getSession().createQuery(queryTemplates.get(Operation.GET_ALL, resultClass, null, null, 0, GeneralDAO::hqlGetAll), resultClass);
+        return stream(query, resultClass, fetchSize);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> Stream<T> stream(String namedQuery, Map<String, Object> params, Class<T> resultClass, int fetchSize) {
+        org.hibernate.query.Query<T> query = getSession().createNamedQuery(namedQuery, resultClass);
+        HibernateUtil.setParametersString(query, params);
+        return stream(query, resultClass, fetchSize);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> Stream<T> stream(Map<SingularAttribute<?, ?>, Object> params, Class<T> resultClass, int fetchSize) {
+        org.hibernate.query.Query<T> query = createHibernateQuery(resultClass, params);
+        return stream(query, resultClass, fetchSize);
+    }
+
+    /**
+     * O {@link org.hibernate.query.Query#stream()} já fecha o {@link ScrollableResults} no {@link Stream#close()}. As entidades são lidas como
+     * somente-leitura (sem snapshot para dirty checking) e desanexadas depois de processadas pelo consumidor, assim o persistence context não cresce
+     * com o stream.
+     */
+    private <T> Stream<T> stream(org.hibernate.query.Query<T> query, Class<T> resultClass, int fetchSize) {
+        query.setFetchSize(fetchSize);
+        query.setReadOnly(true);
+        final Stream<T> stream = query.stream();
+        if (!HibernateUtil.isEntity(getEntityManager(), resultClass)) {
+            return stream;
+        }
+        return StreamSupport.stream(new DetachingSpliterator<>(stream.spliterator(), getSession()), false).onClose(stream::close);
+    }
+
+    /**
+     * Entrega cada entidade ao restante do pipeline e só então a desanexa da {@link Session}.
+     */
+    private static final class DetachingSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+        private final Spliterator<T> source;
+
+        private final Session session;
+
+        DetachingSpliterator(Spliterator<T> source, Session session) {
+            super(source.estimateSize(), source.characteristics());
+            this.source = source;
+            this.session = session;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            return source.tryAdvance(entity -> {
+                try {
+                    action.accept(entity);
+                } finally {
+                    session.detach(entity);
+                }
+            });
+        }
+
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -513,7 +863,7 @@ public class GeneralDAO implements DAO {
     public <T> Pair<List<T>, PaginationScrollStatus> getPaged(Class<T> resultClass, Map<SingularAttribute<?, ?>, Object> params, Map<SingularAttribute<?, ?>, SortOrder> orderByAttributes,
             boolean nullsFirst, int page, int pageSize) {
         org.hibernate.query.Query<T> query = createHibernateQuery(resultClass, orderByAttributes, nullsFirst, params);
-        return returnPagedList(page, pageSize, query);
+        return returnPagedList(page, pageSize, query, createCountQuery(resultClass, params));
     }
 
     /**
@@ -523,7 +873,151 @@ public class GeneralDAO implements DAO {
     public <T> Pair<List<T>, PaginationScrollStatus> getPaged(Class<T> resultClass, String namedQuery, Map<String, Object> params, int page, int pageSize) {
         org.hibernate.query.Query<T> query = getSession().createNamedQuery(namedQuery, resultClass);
         HibernateUtil.setParametersString(query, params);
-        return returnPagedList(page, pageSize, query);
+        return returnPagedList(page, pageSize, query, createCountQuery(namedQuery, params));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> Pair<List<T>, KeysetScrollStatus> getPagedByKeyset(Class<T> resultClass, Map<SingularAttribute<?, ?>, Object> params,
+            Map<SingularAttribute<?, ?>, SortOrder> orderByAttributes, String cursor, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize deve ser maior que zero: " + pageSize);
+        }
+
+        // colunas da chave: atributos de ordenação + id como desempate
+        final String idName = getIdAttributeName(resultClass);
+        final List<String> keyNames = new ArrayList<>();
+        final List<SortOrder> keyOrders = new ArrayList<>();
+        if (orderByAttributes != null) {
+            orderByAttributes.forEach((attribute, sortOrder) -> {
+                if (attribute.isOptional()) {
+                    // um valor nulo não pode ser comparado no predicado de busca, então nem executa a consulta
+                    throw new IllegalArgumentException("Paginação por chave exige atributos de ordenação não nulos: " + attribute.getName());
+                }
+                keyNames.add(attribute.getName());
+                keyOrders.add(sortOrder);
+            });
+        }
+        if (!keyNames.contains(idName)) {
+            keyNames.add(idName);
+            keyOrders.add(SortOrder.ASC);
+        }
+
+        final String sort = KeysetCursor.sortSpec(keyNames, keyOrders);
+        final long filter = filterHash(params);
+        final KeysetCursor keysetCursor = KeysetCursor.decode(cursor, sort, filter);
+        if (keysetCursor != null && keysetCursor.getValues().size() != keyNames.size()) {
+            throw new IllegalArgumentException("Cursor não corresponde à ordenação: " + keyNames);
+        }
+        final boolean backward = keysetCursor != null && keysetCursor.isBackward();
+
+        final StringBuilder qlString = new StringBuilder("SELECT e");
+        keyNames.forEach(name -> qlString.append(", e.").append(name));
+        qlString.append(" FROM ").append(resultClass.getName()).append(" e ");
+        final String where = buildWhere("e", params);
+        qlString.append(where);
+        if (keysetCursor != null) {
+            qlString.append(where.isEmpty() ? " WHERE " : " AND ").append(buildSeekPredicate("e", keyNames, keyOrders, backward));
+        }
+        qlString.append(" ORDER BY ");
+        for (int i = 0; i < keyNames.size(); i++) {
+            final SortOrder sortOrder = backward ? reverse(keyOrders.get(i)) : keyOrders.get(i);
+            qlString.append(i > 0 ? ", " : "").append("e.").append(keyNames.get(i)).append(" ").append(sortOrder.getNome());
+        }
+
+        final TypedQuery<Object[]> query = getEntityManager().createQuery(qlString.toString(), Object[].class);
+        if (params != null) {
+            associarParametros(query, params);
+        }
+        if (keysetCursor != null) {
+            for (int i = 0; i < keyNames.size(); i++) {
+                query.setParameter("k" + i, keysetCursor.getValues().get(i));
+            }
+        }
+        query.setMaxResults(pageSize + 1); // +1 para saber se existe mais uma página na direção da busca
+
+        List<Object[]> rows = query.getResultList();
+        final boolean hasMore = rows.size() > pageSize;
+        rows = new ArrayList<>(hasMore ? rows.subList(0, pageSize) : rows);
+        if (backward) {
+            Collections.reverse(rows);
+        }
+
+        final boolean hasNext = backward || hasMore;
+        final boolean hasPrevious = backward ? hasMore : keysetCursor != null;
+        String proximoCursor = null;
+        String cursorAnterior = null;
+        if (!rows.isEmpty()) {
+            if (hasNext) {
+                proximoCursor = new KeysetCursor(sort, filter, false, keyValues(rows.get(rows.size() - 1))).encode();
+            }
+            if (hasPrevious) {
+                cursorAnterior = new KeysetCursor(sort, filter, true, keyValues(rows.get(0))).encode();
+            }
+        }
+
+        final List<T> resultList = rows.stream().map(row -> resultClass.cast(row[0])).collect(Collectors.toList());
+        return new Pair<List<T>, KeysetScrollStatus>(resultList, new KeysetScrollStatus(pageSize, proximoCursor, cursorAnterior));
+    }
+
+    /**
+     * Monta o predicado de busca por chave na forma expandida, que suporta direções de ordenação diferentes por coluna:
+     *
+     * <pre>
+     * (e.c0 &gt; :k0) OR (e.c0 = :k0 AND e.c1 &gt; :k1) OR ... OR (e.c0 = :k0 AND ... AND e.cN &gt; :kN)
+     * </pre>
+     */
+    private String buildSeekPredicate(String alias, List<String> keyNames, List<SortOrder> keyOrders, boolean backward) {
+        final List<String> disjunctions = new ArrayList<>();
+        for (int i = 0; i < keyNames.size(); i++) {
+            final StringBuilder conjunction = new StringBuilder("(");
+            for (int j = 0; j < i; j++) {
+                conjunction.append(alias).append(".").append(keyNames.get(j)).append(" = :k").append(j).append(" AND ");
+            }
+            final boolean asc = SortOrder.ASC.equals(keyOrders.get(i)) != backward;
+            conjunction.append(alias).append(".").append(keyNames.get(i)).append(asc ? " > :k" : " < :k").append(i).append(")");
+            disjunctions.add(conjunction.toString());
+        }
+        return "(" + String.join(" OR ", disjunctions) + ")";
+    }
+
+    private SortOrder reverse(SortOrder sortOrder) {
+        return SortOrder.ASC.equals(sortOrder) ? SortOrder.DESC : SortOrder.ASC;
+    }
+
+    private List<Object> keyValues(Object[] row) {
+        return Arrays.asList(row).subList(1, row.length);
+    }
+
+    /**
+     * Resumo das condições da busca por chave, gravado no cursor para que ele não seja usado com outro filtro. Entidades entram pela classe e id.
+     *
+     * @return hash das condições ou 0 se não houver
+     */
+    private long filterHash(Map<SingularAttribute<?, ?>, Object> params) {
+        if (params == null || params.isEmpty()) {
+            return 0;
+        }
+        final Map<String, String> conditions = new TreeMap<>();
+        params.forEach((attribute, value) -> {
+            final String description;
+            if (value == null) {
+                description = "null";
+            } else if (HibernateUtil.isEntity(getEntityManager(), Hibernate.getClass(value))) {
+                description = Hibernate.getClass(value).getName() + "#" + extractId(value);
+            } else {
+                description = value.getClass().getName() + ":" + value;
+            }
+            conditions.put(attribute.getName(), description);
+        });
+        return Hashing.murmur3_128().hashString(conditions.toString(), StandardCharsets.UTF_8).asLong();
+    }
+
+    private String getIdAttributeName(Class<?> entityClass) {
+        final EntityType<?> entityType = getEntityManager().getMetamodel().entity(entityClass);
+        return entityType.getId(entityType.getIdType().getJavaType()).getName();
     }
 
 //    /**
@@ -539,20 +1033,54 @@ public class GeneralDAO implements DAO {
 //        return new Pair<List<T>, PaginationScrollStatus>(resultList, pss);
 //    }
 
-    private <T> Pair<List<T>, PaginationScrollStatus> returnPagedList(int page, int pageSize, org.hibernate.query.Query<T> query) {
-        PaginationScrollStatus pss = new PaginationScrollStatus(page, pageSize, getTotalDeRegistros(query));
+    private <T> Pair<List<T>, PaginationScrollStatus> returnPagedList(int page, int pageSize, org.hibernate.query.Query<T> query, CountQuery countQuery) {
+        if (countQuery != null && countQueryExecutor.isParallel() && countQueryExecutor.getRecentTotal(countQuery) == null) {
+            return returnPagedListParallel(page, pageSize, query, countQuery);
+        }
+        final int totalDeRegistros = countQuery != null ? countQueryExecutor.count(countQuery, getEntityManager()) : getTotalDeRegistros(query);
+        PaginationScrollStatus pss = new PaginationScrollStatus(page, pageSize, totalDeRegistros);
         query.setFirstResult(pss.getOffset());
         query.setMaxResults(pss.getPageSize());
         List<T> resultList = query.getResultList();
         return new Pair<List<T>, PaginationScrollStatus>(resultList, pss);
     }
 
+    /**
+     * A contagem roda em outra thread/EntityManager enquanto a página é buscada no EntityManager da requisição. A página é buscada de forma otimista
+     * com o offset solicitado; se ao final ela se mostrar inválida (o {@link PaginationScrollStatus} volta para a página 0), é buscada de novo.
+     */
+    private <T> Pair<List<T>, PaginationScrollStatus> returnPagedListParallel(int page, int pageSize, org.hibernate.query.Query<T> query, CountQuery countQuery) {
+        final CompletableFuture<Integer> total = countQueryExecutor.countAsync(countQuery);
+        final int requestedOffset = Math.max(page, 0) * pageSize;
+        query.setFirstResult(requestedOffset);
+        query.setMaxResults(pageSize);
+        List<T> resultList = query.getResultList();
+
+        PaginationScrollStatus pss = new PaginationScrollStatus(page, pageSize, join(total));
+        if (pss.getOffset() != requestedOffset) {
+            query.setFirstResult(pss.getOffset());
+            resultList = query.getResultList();
+        }
+        return new Pair<List<T>, PaginationScrollStatus>(resultList, pss);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public <T> int deleteAll(Class<T> entityClass) {
-        final String qlString = "DELETE FROM " + entityClass.getName();
+        final String qlString = queryTemplates.get(Operation.DELETE_ALL, entityClass, null, null, 0, GeneralDAO::hqlDeleteAll);
         Query query = getEntityManager().createQuery(qlString);
         return executeUpdate(query);
     }
@@ -562,7 +1090,7 @@ public class GeneralDAO implements DAO {
      */
     @Override
     public <T> int deleteByDirectAttribute(Class<T> entityClass, SingularAttribute<?, ?> attributeToSearch, Object value) {
-        final String qlString = "DELETE FROM " + entityClass.getName() + " e WHERE e." + attributeToSearch.getName() + " = :value";
+        final String qlString = queryTemplates.get(Operation.DELETE_BY_ATTRIBUTE, entityClass, attributeToSearch, null, 0, GeneralDAO::hqlDeleteByAttribute);
         Query query = getEntityManager().createQuery(qlString);
         query.setParameter("value", value);
         return executeUpdate(query);
@@ -595,6 +1123,7 @@ public class GeneralDAO implements DAO {
     public int executeUpdate(String namedQuery, Map<String, Object> params) {
         Query query = getEntityManager().createNamedQuery(namedQuery);
         HibernateUtil.setParametersString(query, params);
+        negativeLookupCache.beforeBulkUpdate(getSession());
         return executeUpdate(query);
     }
 
@@ -648,6 +1177,93 @@ public class GeneralDAO implements DAO {
         }
     }
 
+    private <T> long persist(org.hibernate.query.Query<T> query, Consumer<T> process, int chunkSize, LongConsumer progress) {
+        checkChunkSize(chunkSize);
+        final EntityManager em = getEntityManager();
+        query.setFetchSize(chunkSize);
+        long count = 0;
+        try (ScrollableResults scrollableResults = query.scroll(ScrollMode.FORWARD_ONLY)) {
+            while (scrollableResults.next()) {
+                T entity = (T) scrollableResults.get()[0];
+                process.accept(entity);
+                entity = persist(entity);
+                if (++count % chunkSize == 0) {
+                    endChunk(em, count, progress);
+                }
+            }
+        }
+        if (count % chunkSize != 0) {
+            endChunk(em, count, progress);
+        }
+        return count;
+    }
+
+    /**
+     * Processa as entidades em páginas por chave ({@code WHERE e.id > :lastId ORDER BY e.id}), cada página na sua própria transação. Nenhum cursor
+     * fica aberto entre um commit e outro, já que o Hibernate pode liberar a conexão (e fechar o ResultSet) ao fim de cada transação.
+     */
+    private <T> long persistTransactionPerChunk(Class<T> targetClass, Consumer<T> process, int chunkSize, LongConsumer progress) {
+        checkChunkSize(chunkSize);
+        final EntityManager em = getEntityManager();
+        final EntityTransaction transaction = em.getTransaction();
+        if (transaction.isActive()) {
+            throw new IllegalStateException("commitPerChunk controla as próprias transações e não pode ser executado dentro de uma transação ativa");
+        }
+        final String idName = getIdAttributeName(targetClass);
+        final String select = "SELECT e." + idName + ", e FROM " + targetClass.getName() + " e ";
+        final String orderBy = " ORDER BY e." + idName;
+        long count = 0;
+        Object lastId = null;
+        int rows;
+        do {
+            transaction.begin();
+            try {
+                final TypedQuery<Object[]> query = em.createQuery(select + (lastId == null ? "" : "WHERE e." + idName + " > :lastId") + orderBy, Object[].class);
+                if (lastId != null) {
+                    query.setParameter("lastId", lastId);
+                }
+                query.setMaxResults(chunkSize);
+                final List<Object[]> page = query.getResultList();
+                rows = page.size();
+                for (Object[] row : page) {
+                    process.accept(targetClass.cast(row[1]));
+                    persist(row[1]);
+                    lastId = row[0];
+                }
+                em.flush();
+                transaction.commit();
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw e;
+            }
+            em.clear();
+            count += rows;
+            if (rows > 0 && progress != null) {
+                progress.accept(count);
+            }
+        } while (rows == chunkSize);
+        return count;
+    }
+
+    private void checkChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize deve ser maior que zero: " + chunkSize);
+        }
+    }
+
+    /**
+     * Libera a memória do bloco: flush das alterações e clear do persistence context.
+     */
+    private void endChunk(EntityManager em, long count, LongConsumer progress) {
+        em.flush();
+        em.clear();
+        if (progress != null) {
+            progress.accept(count);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -672,17 +1288,51 @@ public class GeneralDAO implements DAO {
     }
 
     private Object extractId(Object entity) {
+        final EntityMetadata metadata = EntityMetadataRegistry.forIdOf(entity);
+        if (metadata != null) {
+            return metadata.getId(entity);
+        }
         return getEntityManager().getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity);
     }
 
+    /**
+     * Cria a named query aplicando a política de cache de consultas de {@code resultClass} ({@link QueryCacheable}).
+     */
+    private <T> TypedQuery<T> createNamedQuery(String namedQuery, Class<T> resultClass) {
+        return QueryCacheHint.of(resultClass).applyTo(getEntityManager().createNamedQuery(namedQuery, resultClass));
+    }
+
     private Session getSession() {
         return HibernateUtil.getSession(getEntityManager());
     }
 
+    /**
+     * Conta os registros percorrendo todo o resultado de {@code query}. Caro, usado apenas quando não é possível montar um {@link CountQuery}.
+     */
     private int getTotalDeRegistros(org.hibernate.query.Query query) {
-        ScrollableResults scroll = query.scroll(ScrollMode.FORWARD_ONLY);
-        scroll.last();
-        return scroll.getRowNumber() + 1;
+        try (ScrollableResults scroll = query.scroll(ScrollMode.FORWARD_ONLY)) {
+            scroll.last();
+            return scroll.getRowNumber() + 1;
+        }
+    }
+
+    private CountQuery createCountQuery(Class<?> resultClass, Map<SingularAttribute<?, ?>, Object> condicoes) {
+        final String qlString = queryTemplates.getWithConditions(Operation.COUNT, resultClass, condicoes, null, 0, GeneralDAO::hqlCount);
+        return CountQuery.of(qlString, toParametersString(condicoes));
+    }
+
+    /**
+     * Usa a named query {@code namedQuery + }{@link DAO#COUNT_QUERY_SUFFIX} se existir, senão tenta derivar a contagem da HQL de {@code namedQuery}.
+     *
+     * @return a contagem ou {@code null} se não for possível montá-la
+     */
+    private CountQuery createCountQuery(String namedQuery, Map<String, Object> params) {
+        final String countNamedQuery = namedQuery + COUNT_QUERY_SUFFIX;
+        if (HibernateUtil.getNamedQueryString(getEntityManager(), countNamedQuery) != null) {
+            return CountQuery.ofNamedQuery(countNamedQuery, params);
+        }
+        final String countQlString = HibernateUtil.toCountQueryString(HibernateUtil.getNamedQueryString(getEntityManager(), namedQuery));
+        return countQlString == null ? null : CountQuery.of(countQlString, params);
     }
 
 //    private <T, S extends SearchAbstract<T>> int getTotalDeRegistros(S search) {
@@ -697,12 +1347,104 @@ public class GeneralDAO implements DAO {
 
     private <T> org.hibernate.query.Query<T> createHibernateQuery(Class<T> resultClass, Map<SingularAttribute<?, ?>, SortOrder> orderByAttributes, boolean nullsFirst,
             Map<SingularAttribute<?, ?>, Object> condicoes) {
-        final StringBuilder qlString = new StringBuilder("FROM " + resultClass.getName() + " e ");
+        final String qlString = queryTemplates.getWithConditions(Operation.FIND, resultClass, condicoes, orderByAttributes, nullsFirst ? QueryTemplateCache.NULLS_FIRST : 0,
+                GeneralDAO::hqlFind);
+        org.hibernate.query.Query<T> query = getSession().createQuery(qlString, resultClass);
+        if (condicoes != null) {
+            associarParametros(query, condicoes);
+        }
+        return query;
+    }
+
+    private org.hibernate.query.Query<Tuple> createProjectionQuery(Class<?> entityClass, List<? extends SingularAttribute<?, ?>> attributes,
+            Map<SingularAttribute<?, ?>, Object> condicoes, Map<SingularAttribute<?, ?>, SortOrder> orderByAttributes) {
+        final StringBuilder qlString = new StringBuilder("SELECT ");
+        qlString.append(attributes.stream().map(attribute -> "e." + attribute.getName()).collect(Collectors.joining(", ")));
+        qlString.append(" FROM " + entityClass.getName() + " e ");
         if (condicoes != null) {
             qlString.append(buildWhere("e", condicoes));
         }
         if (orderByAttributes != null && !orderByAttributes.isEmpty()) {
-            final String nf = nullsFirst ? "NULLS FIRST" : "";
+            qlString.append(" ORDER BY ");
+            qlString.append(orderByAttributes.entrySet().stream().map(entry -> "e." + entry.getKey().getName() + " " + entry.getValue().getNome())
+                    .collect(Collectors.joining(", ")));
+        }
+        org.hibernate.query.Query<Tuple> query = getSession().createQuery(qlString.toString(), Tuple.class);
+        if (condicoes != null) {
+            associarParametros(query, condicoes);
+        }
+        return query;
+    }
+
+    private static int orderFlags(SortOrder sortOrder, boolean lower) {
+        return (SortOrder.DESC.equals(sortOrder) ? QueryTemplateCache.DESC : 0) | (lower ? QueryTemplateCache.LOWER : 0);
+    }
+
+    // HQL das operações do QueryTemplateCache: estáticas para que as referências a métodos não capturem nada
+
+    private static String hqlGetByAttribute(Class<?> entityClass, Attribute<?, ?> attribute, Attribute<?, ?> second, int flags) {
+        return "FROM " + entityClass.getName() + " e WHERE e." + attribute.getName() + " = :value";
+    }
+
+    private static String hqlGetByAttributeIn(Class<?> entityClass, Attribute<?, ?> attribute, Attribute<?, ?> second, int flags) {
+        return "SELECT e." + attribute.getName() + ", e FROM " + entityClass.getName() + " e WHERE e." + attribute.getName() + " in :values";
+    }
+
+    private static String hqlGetByAttributeStartWith(Class<?> entityClass, Attribute<?, ?> attribute, Attribute<?, ?> second, int flags) {
+        return "FROM " + entityClass.getName() + " e WHERE e." + attribute.getName() + " like :value";
+    }
+
+    private static String hqlGetAll(Class<?> entityClass, Attribute<?, ?> first, Attribute<?, ?> second, int flags) {
+        return "FROM " + entityClass.getName();
+    }
+
+    private static String hqlGetAllOrdered(Class<?> entityClass, Attribute<?, ?> orderByAttribute, Attribute<?, ?> second, int flags) {
+        return "FROM " + entityClass.getName() + " e ORDER BY " + hqlOrderBy(orderByAttribute, flags);
+    }
+
+    private static String hqlSingleByAttribute(Class<?> entityClass, Attribute<?, ?> attribute, Attribute<?, ?> second, int flags) {
+        return "FROM " + entityClass.getName() + " e " + hqlWhereValue(attribute, flags);
+    }
+
+    private static String hqlExist(Class<?> entityClass, Attribute<?, ?> attribute, Attribute<?, ?> second, int flags) {
+        return "SELECT CASE WHEN (COUNT(*) > 0) THEN true ELSE false END FROM " + entityClass.getName() + " e " + hqlWhereValue(attribute, flags);
+    }
+
+    private static String hqlGetAttributesOrdered(Class<?> entityClass, Attribute<?, ?> attributeToReturn, Attribute<?, ?> orderByAttribute, int flags) {
+        return "SELECT e." + attributeToReturn.getName() + " FROM " + entityClass.getName() + " e ORDER BY " + hqlOrderBy(orderByAttribute, flags);
+    }
+
+    private static String hqlGetAttributesWhere(Class<?> entityClass, Attribute<?, ?> attributeToReturn, Attribute<?, ?> attributeToSearch, int flags) {
+        return "SELECT e." + attributeToReturn.getName() + " FROM " + entityClass.getName() + " e WHERE e." + attributeToSearch.getName() + " = :valueToSearch";
+    }
+
+    private static String hqlGetAttributesMap(Class<?> entityClass, Attribute<?, ?> keyToReturn, Attribute<?, ?> valueToReturn, int flags) {
+        return "SELECT e." + keyToReturn.getName() + ", e." + valueToReturn.getName() + " FROM " + entityClass.getName() + " e";
+    }
+
+    private static String hqlDeleteAll(Class<?> entityClass, Attribute<?, ?> first, Attribute<?, ?> second, int flags) {
+        return "DELETE FROM " + entityClass.getName();
+    }
+
+    private static String hqlDeleteByAttribute(Class<?> entityClass, Attribute<?, ?> attribute, Attribute<?, ?> second, int flags) {
+        return "DELETE FROM " + entityClass.getName() + " e WHERE e." + attribute.getName() + " = :value";
+    }
+
+    private static String hqlExistByAttributes(Class<?> entityClass, Map<SingularAttribute<?, ?>, Object> condicoes, Map<SingularAttribute<?, ?>, SortOrder> orderBy,
+            int flags) {
+        return "SELECT CASE WHEN (COUNT(*) > 0) THEN true ELSE false END FROM " + entityClass.getName() + " e " + buildWhere("e", condicoes);
+    }
+
+    private static String hqlCount(Class<?> entityClass, Map<SingularAttribute<?, ?>, Object> condicoes, Map<SingularAttribute<?, ?>, SortOrder> orderBy, int flags) {
+        return "SELECT COUNT(e) FROM " + entityClass.getName() + " e " + buildWhere("e", condicoes);
+    }
+
+    private static String hqlFind(Class<?> entityClass, Map<SingularAttribute<?, ?>, Object> condicoes, Map<SingularAttribute<?, ?>, SortOrder> orderByAttributes,
+            int flags) {
+        final StringBuilder qlString = new StringBuilder("FROM " + entityClass.getName() + " e ");
+        qlString.append(buildWhere("e", condicoes));
+        if (orderByAttributes != null && !orderByAttributes.isEmpty()) {
+            final String nf = (flags & QueryTemplateCache.NULLS_FIRST) != 0 ? "NULLS FIRST" : "";
             qlString.append(" ORDER BY ");
 
             List<String> attributes = new ArrayList<>();
@@ -710,17 +1452,27 @@ public class GeneralDAO implements DAO {
                 attributes.add("e." + attribute.getName() + " " + typeOrder.getNome() + " " + nf);
             });
 
-            qlString.append(attributes.stream().map(param -> param.toString()).collect(Collectors.joining(", ")));
+            qlString.append(String.join(", ", attributes));
+        }
+        return qlString.toString();
+    }
+
+    private static String hqlOrderBy(Attribute<?, ?> attribute, int flags) {
+        final String path = (flags & QueryTemplateCache.LOWER) != 0 ? "lower(e." + attribute.getName() + ")" : "e." + attribute.getName();
+        return path + " " + ((flags & QueryTemplateCache.DESC) != 0 ? SortOrder.DESC : SortOrder.ASC).getNome();
+    }
 
+    private static String hqlWhereValue(Attribute<?, ?> attribute, int flags) {
+        if ((flags & QueryTemplateCache.LOWER) != 0) {
+            return "WHERE lower(e." + attribute.getName() + ") = lower(:value) ";
         }
-        org.hibernate.query.Query<T> query = getSession().createQuery(qlString.toString(), resultClass);
-        if (condicoes != null) {
-            associarParametros(query, condicoes);
+        if ((flags & QueryTemplateCache.TRUNC) != 0) {
+            return "WHERE trunc(e." + attribute.getName() + ") = trunc(:value) ";
         }
-        return query;
+        return "WHERE e." + attribute.getName() + " = :value ";
     }
 
-    private String buildWhere(String alias, Map<SingularAttribute<?, ?>, Object> condicoes) {
+    private static String buildWhere(String alias, Map<SingularAttribute<?, ?>, Object> condicoes) {
         final String AND = " AND ";
         final StringBuilder qlString = new StringBuilder();
         if (condicoes != null) {
@@ -741,6 +1493,18 @@ public class GeneralDAO implements DAO {
         return qlString.toString();
     }
 
+    private Map<String, Object> toParametersString(Map<SingularAttribute<?, ?>, Object> condicoes) {
+        final Map<String, Object> params = new HashMap<>();
+        if (condicoes != null) {
+            condicoes.forEach((key, value) -> {
+                if (value != null) {
+                    params.put(key.getName() + key.hashCode(), value);
+                }
+            });
+        }
+        return params;
+    }
+
     private void associarParametros(javax.persistence.Query query, Map<SingularAttribute<?, ?>, Object> condicoes) {
         condicoes.forEach((key, value) -> {
             final String attrName = key.getName();
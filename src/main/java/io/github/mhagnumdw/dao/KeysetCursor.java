@@ -0,0 +1,223 @@
+package io.github.mhagnumdw.dao;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+
+import io.github.mhagnumdw.search.SortOrder;
+
+/**
+ * Cursor opaco da paginação por chave (<i>keyset</i>): a ordenação que o gerou (atributos e direções), um resumo (hash) das condições da busca, os
+ * valores das colunas de ordenação (e do id) de uma linha limite da página e a direção da busca.
+ * <p>
+ * É serializado num formato próprio e restrito a tipos simples (nunca por serialização Java), já que o cursor volta do cliente.
+ * </p>
+ */
+final class KeysetCursor {
+
+    private static final byte VERSION = 3;
+
+    private final String sort;
+
+    private final long filter;
+
+    private final boolean backward;
+
+    private final List<Object> values;
+
+    KeysetCursor(String sort, long filter, boolean backward, List<Object> values) {
+        this.sort = sort;
+        this.filter = filter;
+        this.backward = backward;
+        this.values = Collections.unmodifiableList(new ArrayList<>(values));
+    }
+
+    /**
+     * Descreve a ordenação da chave, ex.: {@code name:ASC,id:ASC}.
+     */
+    static String sortSpec(List<String> keyNames, List<SortOrder> keyOrders) {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < keyNames.size(); i++) {
+            sb.append(i > 0 ? "," : "").append(keyNames.get(i)).append(':').append(keyOrders.get(i).name());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return {@code true} se a busca é em direção à página anterior
+     */
+    boolean isBackward() {
+        return backward;
+    }
+
+    List<Object> getValues() {
+        return values;
+    }
+
+    /**
+     * Serializa o cursor.
+     *
+     * @return cursor codificado em Base64 (URL-safe)
+     *
+     * @throws IllegalArgumentException
+     *             se algum valor for nulo ou de tipo não suportado
+     */
+    String encode() {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeUTF(sort);
+            out.writeLong(filter);
+            out.writeBoolean(backward);
+            out.writeInt(values.size());
+            for (Object value : values) {
+                write(out, value);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * Desserializa o cursor.
+     *
+     * @param cursor
+     *            cursor codificado, pode ser nulo
+     * @param expectedSort
+     *            ordenação da consulta atual, ver {@link #sortSpec(List, List)}
+     * @param expectedFilter
+     *            hash das condições da consulta atual
+     *
+     * @return o cursor ou {@code null} se {@code cursor} for vazio
+     *
+     * @throws IllegalArgumentException
+     *             se o cursor for inválido ou tiver sido gerado com outra ordenação ou outras condições
+     */
+    static KeysetCursor decode(String cursor, String expectedSort, long expectedFilter) {
+        if (StringUtils.isBlank(cursor)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)))) {
+            if (in.readByte() != VERSION) {
+                throw new IllegalArgumentException("Cursor inválido: versão não suportada");
+            }
+            final String sort = in.readUTF();
+            if (!sort.equals(expectedSort)) {
+                throw new IllegalArgumentException("Cursor não corresponde à ordenação: " + expectedSort);
+            }
+            final long filter = in.readLong();
+            if (filter != expectedFilter) {
+                throw new IllegalArgumentException("Cursor não corresponde às condições da busca");
+            }
+            final boolean backward = in.readBoolean();
+            final int size = in.readInt();
+            if (size < 0 || size > 32) {
+                throw new IllegalArgumentException("Cursor inválido: " + size + " valores");
+            }
+            final List<Object> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(read(in));
+            }
+            return new KeysetCursor(sort, filter, backward, values);
+        } catch (IOException | DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+
+    private static void write(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            throw new IllegalArgumentException("Paginação por chave exige atributos de ordenação não nulos");
+        }
+        if (value instanceof String) {
+            out.writeByte('S');
+            out.writeUTF((String) value);
+        } else if (value instanceof Long) {
+            out.writeByte('J');
+            out.writeLong((Long) value);
+        } else if (value instanceof Integer) {
+            out.writeByte('I');
+            out.writeInt((Integer) value);
+        } else if (value instanceof Short) {
+            out.writeByte('H');
+            out.writeShort((Short) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte('Z');
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Double) {
+            out.writeByte('D');
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte('F');
+            out.writeFloat((Float) value);
+        } else if (value instanceof BigDecimal) {
+            out.writeByte('B');
+            out.writeUTF(value.toString());
+        } else if (value instanceof Timestamp) {
+            out.writeByte('T');
+            out.writeLong(((Timestamp) value).getTime());
+            out.writeInt(((Timestamp) value).getNanos());
+        } else if (value instanceof Date) {
+            out.writeByte('U');
+            out.writeLong(((Date) value).getTime());
+        } else if (value instanceof LocalDate) {
+            out.writeByte('L');
+            out.writeUTF(value.toString());
+        } else if (value instanceof LocalDateTime) {
+            out.writeByte('M');
+            out.writeUTF(value.toString());
+        } else {
+            throw new IllegalArgumentException("Tipo não suportado na paginação por chave: " + value.getClass().getName());
+        }
+    }
+
+    private static Object read(DataInputStream in) throws IOException {
+        final byte tag = in.readByte();
+        switch (tag) {
+            case 'S':
+                return in.readUTF();
+            case 'J':
+                return in.readLong();
+            case 'I':
+                return in.readInt();
+            case 'H':
+                return in.readShort();
+            case 'Z':
+                return in.readBoolean();
+            case 'D':
+                return in.readDouble();
+            case 'F':
+                return in.readFloat();
+            case 'B':
+                return new BigDecimal(in.readUTF());
+            case 'T':
+                final Timestamp timestamp = new Timestamp(in.readLong());
+                timestamp.setNanos(in.readInt());
+                return timestamp;
+            case 'U':
+                return new Date(in.readLong());
+            case 'L':
+                return LocalDate.parse(in.readUTF());
+            case 'M':
+                return LocalDateTime.parse(in.readUTF());
+            default:
+                throw new IllegalArgumentException("Cursor inválido: tipo " + tag);
+        }
+    }
+
+}
@@ -0,0 +1,31 @@
+package io.github.mhagnumdw.dao;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca um atributo ({@code String} ou numérico inteiro) da entidade para o {@link NegativeLookupCache}: as buscas por esse atributo cujo valor
+ * certamente não existe ({@code exist(...)}, {@code getSingleResultByDirectAttribute(...)}) são respondidas sem ir ao banco.
+ * <p>
+ * Indicado para checagens de duplicidade em que a maioria das chaves é nova.
+ * </p>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface NegativeLookup {
+
+    /**
+     * @return quantidade esperada de valores distintos; se a tabela já tiver mais, o filtro é dimensionado para o dobro da tabela
+     */
+    int expectedInsertions() default 100_000;
+
+    /**
+     * @return taxa de falso positivo desejada (o valor pode existir, mas não existe)
+     */
+    double fpp() default 0.01;
+
+}
@@ -0,0 +1,118 @@
+package io.github.mhagnumdw.dao;
+
+import java.util.List;
+
+import javax.persistence.metamodel.SingularAttribute;
+
+import org.hibernate.Session;
+
+/**
+ * Cache de buscas negativas do {@link GeneralDAO}: responde, sem ir ao banco, que um valor de um atributo {@link NegativeLookup} certamente não
+ * existe. Uma resposta {@code false} de {@link #isAbsent(Class, SingularAttribute, Object)} nunca é conclusiva: o banco deve ser consultado.
+ * <p>
+ * Só enxerga as gravações feitas por esta aplicação: outro processo gravando nas mesmas tabelas causa falsos negativos.
+ * </p>
+ */
+public interface NegativeLookupCache {
+
+    /**
+     * Carrega, a partir das tabelas, os valores de todos os atributos {@link NegativeLookup} e passa a acompanhar inserções e alterações.
+     * Deve ser chamado na inicialização, com o JPA já iniciado.
+     */
+    void load();
+
+    /**
+     * @return {@code true} se {@code value} certamente não existe no atributo {@code attribute} de {@code entityClass}; {@code false} se pode existir
+     *         ou se o atributo não é acompanhado
+     */
+    boolean isAbsent(Class<?> entityClass, SingularAttribute<?, ?> attribute, Object value);
+
+    /**
+     * Informa o resultado de uma busca que foi ao banco porque {@link #isAbsent(Class, SingularAttribute, Object)} retornou {@code false}, para
+     * medir a taxa de falso positivo.
+     *
+     * @param found
+     *            se o valor foi encontrado no banco
+     */
+    void recordLookup(Class<?> entityClass, SingularAttribute<?, ?> attribute, Object value, boolean found);
+
+    /**
+     * Informa que {@code session} vai executar um UPDATE/DELETE em lote ou SQL nativo, que grava valores sem passar pelas entidades: até o fim da
+     * transação (e a releitura das tabelas) nenhum valor é dado como ausente.
+     */
+    void beforeBulkUpdate(Session session);
+
+    /**
+     * @return estatísticas de cada atributo acompanhado
+     */
+    List<Stats> getStats();
+
+    /**
+     * Estatísticas de um atributo acompanhado.
+     */
+    final class Stats {
+
+        private final String name;
+        private final double expectedFpp;
+        private final long absent;
+        private final long falsePositives;
+        private final long found;
+
+        public Stats(String name, double expectedFpp, long absent, long falsePositives, long found) {
+            this.name = name;
+            this.expectedFpp = expectedFpp;
+            this.absent = absent;
+            this.falsePositives = falsePositives;
+            this.found = found;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return taxa de falso positivo estimada pelo filtro para a quantidade de valores atual
+         */
+        public double getExpectedFpp() {
+            return expectedFpp;
+        }
+
+        /**
+         * @return buscas respondidas sem ir ao banco
+         */
+        public long getAbsent() {
+            return absent;
+        }
+
+        /**
+         * @return buscas que foram ao banco porque o filtro respondeu "pode existir" e não encontraram o valor. Não conta as que foram ao banco
+         *         sem consultar o filtro (carga inicial, UPDATE em lote)
+         */
+        public long getFalsePositives() {
+            return falsePositives;
+        }
+
+        /**
+         * @return buscas que foram ao banco porque o filtro respondeu "pode existir" e encontraram o valor
+         */
+        public long getFound() {
+            return found;
+        }
+
+        /**
+         * @return taxa de falso positivo medida: falsos positivos / (falsos positivos + respondidas sem ir ao banco)
+         */
+        public double getFalsePositiveRate() {
+            final long negatives = falsePositives + absent;
+            return negatives == 0 ? 0d : (double) falsePositives / negatives;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s [absent=%d, falsePositives=%d, found=%d, falsePositiveRate=%.4f, expectedFpp=%.4f]", name, absent, falsePositives, found,
+                    getFalsePositiveRate(), expectedFpp);
+        }
+
+    }
+
+}
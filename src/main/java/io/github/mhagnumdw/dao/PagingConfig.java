@@ -0,0 +1,62 @@
+package io.github.mhagnumdw.dao;
+
+import com.google.inject.Singleton;
+
+/**
+ * Configuração da busca paginada do {@link GeneralDAO}. Lida das propriedades de sistema (-D).
+ *
+ * <pre>
+ * dao.paging.parallelCount     : se true o total e a página são buscados em paralelo, cada um em seu EntityManager (default: false)
+ * dao.paging.countThreads      : máximo de threads para as contagens em paralelo (default: 2 x processadores)
+ * dao.paging.totalMaxAgeMillis : por quanto tempo um total pode ser reaproveitado para a mesma query e parâmetros, 0 desliga (default: 0)
+ * </pre>
+ */
+@Singleton
+public class PagingConfig {
+
+    public static final String PROP_PARALLEL_COUNT = "dao.paging.parallelCount";
+    public static final String PROP_COUNT_THREADS = "dao.paging.countThreads";
+    public static final String PROP_TOTAL_MAX_AGE_MILLIS = "dao.paging.totalMaxAgeMillis";
+
+    private final boolean parallelCount;
+
+    private final int countThreads;
+
+    private final long totalMaxAgeMillis;
+
+    public PagingConfig() {
+        // @formatter:off
+        this(Boolean.getBoolean(PROP_PARALLEL_COUNT),
+            Integer.getInteger(PROP_COUNT_THREADS, Runtime.getRuntime().availableProcessors() * 2),
+            Long.getLong(PROP_TOTAL_MAX_AGE_MILLIS, 0L));
+        // @formatter:on
+    }
+
+    public PagingConfig(boolean parallelCount, int countThreads, long totalMaxAgeMillis) {
+        this.parallelCount = parallelCount;
+        this.countThreads = Math.max(1, countThreads);
+        this.totalMaxAgeMillis = Math.max(0L, totalMaxAgeMillis);
+    }
+
+    public boolean isParallelCount() {
+        return parallelCount;
+    }
+
+    public int getCountThreads() {
+        return countThreads;
+    }
+
+    public long getTotalMaxAgeMillis() {
+        return totalMaxAgeMillis;
+    }
+
+    public boolean isTotalReuseEnabled() {
+        return totalMaxAgeMillis > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "PagingConfig [parallelCount=" + parallelCount + ", countThreads=" + countThreads + ", totalMaxAgeMillis=" + totalMaxAgeMillis + "]";
+    }
+
+}
@@ -0,0 +1,155 @@
+package io.github.mhagnumdw.dao;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.persistence.Tuple;
+import javax.persistence.metamodel.SingularAttribute;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.reflect.ConstructorUtils;
+
+/**
+ * Converte cada linha ({@link Tuple}) de uma consulta de projeção num DTO.
+ * <p>
+ * Dois tipos de DTO são suportados:
+ * <ul>
+ * <li>classe: com um construtor público cujos parâmetros seguem a ordem e os tipos dos atributos selecionados;</li>
+ * <li>interface: com um <i>getter</i> ({@code getX()} ou {@code isX()}) para cada atributo selecionado e sem métodos {@code default}; a
+ * instância é um {@link Proxy}.</li>
+ * </ul>
+ * </p>
+ */
+final class ProjectionMapper<D> implements Function<Tuple, D> {
+
+    private final Class<D> dtoClass;
+
+    private final Constructor<D> constructor;
+
+    private final Map<Method, Integer> getters;
+
+    private ProjectionMapper(Class<D> dtoClass, Constructor<D> constructor, Map<Method, Integer> getters) {
+        this.dtoClass = dtoClass;
+        this.constructor = constructor;
+        this.getters = getters;
+    }
+
+    /**
+     * Cria o conversor validando {@code dtoClass} contra os atributos selecionados.
+     *
+     * @throws IllegalArgumentException
+     *             se nenhum atributo for informado ou se o DTO não for compatível com os atributos
+     */
+    static <D> ProjectionMapper<D> of(Class<D> dtoClass, List<? extends SingularAttribute<?, ?>> attributes) {
+        if (attributes == null || attributes.isEmpty()) {
+            throw new IllegalArgumentException("Informe ao menos um atributo para a projeção em " + dtoClass.getName());
+        }
+        if (dtoClass.isInterface()) {
+            return new ProjectionMapper<>(dtoClass, null, mapGetters(dtoClass, attributes));
+        }
+        final Class<?>[] types = attributes.stream().map(SingularAttribute::getJavaType).toArray(Class<?>[]::new);
+        final Constructor<D> constructor = ConstructorUtils.getMatchingAccessibleConstructor(dtoClass, types);
+        if (constructor == null) {
+            throw new IllegalArgumentException("A classe " + dtoClass.getName() + " não tem um construtor público compatível com " + Arrays.toString(types));
+        }
+        return new ProjectionMapper<>(dtoClass, constructor, null);
+    }
+
+    private static Map<Method, Integer> mapGetters(Class<?> dtoClass, List<? extends SingularAttribute<?, ?>> attributes) {
+        final Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < attributes.size(); i++) {
+            indexes.put(attributes.get(i).getName(), i);
+        }
+        final Map<Method, Integer> getters = new HashMap<>();
+        for (Method method : dtoClass.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            if (method.isDefault()) {
+                // o Proxy não executa o corpo de métodos default
+                throw new IllegalArgumentException("A interface de projeção não pode ter métodos default: " + method);
+            }
+            final Integer index = method.getParameterCount() == 0 ? indexes.get(toPropertyName(method.getName())) : null;
+            if (index == null) {
+                throw new IllegalArgumentException("O método " + method + " não corresponde a nenhum atributo da projeção");
+            }
+            getters.put(method, index);
+        }
+        return getters;
+    }
+
+    private static String toPropertyName(String getterName) {
+        if (getterName.startsWith("get") && getterName.length() > 3) {
+            return StringUtils.uncapitalize(getterName.substring(3));
+        }
+        if (getterName.startsWith("is") && getterName.length() > 2) {
+            return StringUtils.uncapitalize(getterName.substring(2));
+        }
+        return getterName;
+    }
+
+    @Override
+    public D apply(Tuple tuple) {
+        final Object[] values = tuple.toArray();
+        if (constructor == null) {
+            return dtoClass.cast(Proxy.newProxyInstance(dtoClass.getClassLoader(), new Class<?>[] { dtoClass }, new ValuesHandler(this, values)));
+        }
+        try {
+            return constructor.newInstance(values);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Falha ao instanciar " + dtoClass.getName(), e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Falha ao instanciar " + dtoClass.getName(), e);
+        }
+    }
+
+    /**
+     * Implementação das interfaces DTO: os <i>getters</i> devolvem os valores da linha; {@code equals}, {@code hashCode} e {@code toString} são por
+     * valor.
+     */
+    private static final class ValuesHandler implements InvocationHandler {
+
+        private final ProjectionMapper<?> mapper;
+
+        private final Object[] values;
+
+        ValuesHandler(ProjectionMapper<?> mapper, Object[] values) {
+            this.mapper = mapper;
+            this.values = values;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            final Integer index = mapper.getters.get(method);
+            if (index != null) {
+                return values[index];
+            }
+            switch (method.getName()) {
+                case "equals":
+                    return args[0] != null && Proxy.isProxyClass(args[0].getClass()) && sameValues(Proxy.getInvocationHandler(args[0]));
+                case "hashCode":
+                    return Arrays.hashCode(values);
+                case "toString":
+                    return mapper.dtoClass.getSimpleName() + Arrays.toString(values);
+                default:
+                    throw new UnsupportedOperationException(method.toString());
+            }
+        }
+
+        private boolean sameValues(InvocationHandler other) {
+            return other instanceof ValuesHandler && ((ValuesHandler) other).mapper.dtoClass == mapper.dtoClass
+                    && Arrays.equals(((ValuesHandler) other).values, values);
+        }
+
+    }
+
+}
@@ -0,0 +1,88 @@
+package io.github.mhagnumdw.dao;
+
+import java.util.Objects;
+
+import javax.persistence.Query;
+
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.jpa.QueryHints;
+
+/**
+ * Indica, por chamada, se uma busca do {@link DAO} deve usar o <i>query cache</i> do Hibernate e em qual região.
+ * <p>
+ * Nas buscas sem {@code QueryCacheHint} vale a política da entidade ({@link QueryCacheable}).
+ * </p>
+ */
+public final class QueryCacheHint {
+
+    /**
+     * Não usa o cache, mesmo que a entidade seja {@link QueryCacheable}.
+     */
+    public static final QueryCacheHint NONE = new QueryCacheHint(false, null);
+
+    /**
+     * Usa o cache na região padrão ({@code default-query-results-region}).
+     */
+    public static final QueryCacheHint DEFAULT_REGION = new QueryCacheHint(true, null);
+
+    private static final ClassValue<QueryCacheHint> POLICIES = new ClassValue<QueryCacheHint>() {
+        @Override
+        protected QueryCacheHint computeValue(Class<?> type) {
+            final QueryCacheable policy = type.getAnnotation(QueryCacheable.class);
+            if (policy == null) {
+                return NONE;
+            }
+            return StringUtils.isEmpty(policy.region()) ? DEFAULT_REGION : region(policy.region());
+        }
+    };
+
+    private final boolean cacheable;
+
+    private final String region;
+
+    private QueryCacheHint(boolean cacheable, String region) {
+        this.cacheable = cacheable;
+        this.region = region;
+    }
+
+    /**
+     * Usa o cache na região {@code region}, que pode ser configurada (tamanho, expiração) no application.conf.
+     */
+    public static QueryCacheHint region(String region) {
+        return new QueryCacheHint(true, Objects.requireNonNull(region, "region"));
+    }
+
+    /**
+     * @return a política de {@code resultClass} conforme {@link QueryCacheable}, ou {@link #NONE}
+     */
+    static QueryCacheHint of(Class<?> resultClass) {
+        return POLICIES.get(resultClass);
+    }
+
+    public boolean isCacheable() {
+        return cacheable;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    /**
+     * Aplica as <i>hints</i> do Hibernate em {@code query} se for para usar o cache.
+     */
+    <Q extends Query> Q applyTo(Q query) {
+        if (cacheable) {
+            query.setHint(QueryHints.HINT_CACHEABLE, true);
+            if (region != null) {
+                query.setHint(QueryHints.HINT_CACHE_REGION, region);
+            }
+        }
+        return query;
+    }
+
+    @Override
+    public String toString() {
+        return "QueryCacheHint [cacheable=" + cacheable + ", region=" + region + "]";
+    }
+
+}
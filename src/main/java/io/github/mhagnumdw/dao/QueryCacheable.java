@@ -0,0 +1,32 @@
+package io.github.mhagnumdw.dao;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Política de cache de consultas da entidade: as buscas do {@link DAO} que retornam a entidade anotada ({@code get(namedQuery, ...)},
+ * {@code getSingleResult(...)}, {@code getSingleResultByDirectAttribute(...)} e {@code getAll(...)}) passam a usar o <i>query cache</i> do Hibernate.
+ * <p>
+ * Indicado para dados de referência que mudam pouco (listas de seleção, domínios). A invalidação é automática: qualquer alteração na tabela da entidade
+ * feita pelo Hibernate (persist/merge/remove, {@link DAO#executeUpdate(String, Map)}) torna obsoletos os resultados em cache que a envolvem.
+ * </p>
+ * <p>
+ * A entidade deve estar também no cache de segundo nível ({@code @Cacheable}), pois o <i>query cache</i> guarda apenas os ids.
+ * </p>
+ *
+ * @see QueryCacheHint
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface QueryCacheable {
+
+    /**
+     * @return região do cache; vazio para a região padrão ({@code default-query-results-region})
+     */
+    String region() default "";
+
+}
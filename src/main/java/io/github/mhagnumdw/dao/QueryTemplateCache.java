@@ -0,0 +1,253 @@
+package io.github.mhagnumdw.dao;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.SingularAttribute;
+
+import com.google.inject.Singleton;
+
+import io.github.mhagnumdw.search.SortOrder;
+
+/**
+ * Cache das HQL montadas dinamicamente pelo {@link GeneralDAO}.
+ * <p>
+ * A chave é formada pela operação, classe da entidade, atributos (nas condições, também se o valor é nulo), ordenação e flags como LOWER/TRUNC. A
+ * mesma instância de String é devolvida para a mesma chave, então além de não remontar a HQL, a busca no <i>query plan cache</i> do Hibernate (que
+ * é indexado pela HQL) usa o hash já calculado da String e a compara por identidade, em vez de percorrer uma HQL recém-montada.
+ * </p>
+ * <p>
+ * Os {@link Builder} devem ser referências a métodos estáticos ou lambdas sem captura (uma única instância), e nas operações de um ou dois
+ * atributos a chave de consulta não escapa de {@link #get(Operation, Class, Attribute, Attribute, int, Builder)}: um acerto não aloca nada. Ver
+ * {@code QueryTemplateCacheBenchmark}.
+ * </p>
+ *
+ * <pre>
+ * dao.queryTemplates.enabled : se false a HQL é montada a cada chamada, como antes do cache (default: true)
+ * </pre>
+ */
+@Singleton
+public class QueryTemplateCache {
+
+    public static final String PROP_ENABLED = "dao.queryTemplates.enabled";
+
+    /**
+     * Operações do {@link GeneralDAO} que montam HQL.
+     */
+    public enum Operation {
+        GET_BY_ATTRIBUTE, GET_BY_ATTRIBUTE_IN, GET_BY_ATTRIBUTE_START_WITH, GET_ALL, GET_ALL_ORDERED, SINGLE_BY_ATTRIBUTE, EXIST,
+        EXIST_BY_ATTRIBUTES, GET_ATTRIBUTES_ORDERED, GET_ATTRIBUTES_WHERE, GET_ATTRIBUTES_MAP, FIND, COUNT, DELETE_ALL, DELETE_BY_ATTRIBUTE
+    }
+
+    /** Compara com LOWER */
+    public static final int LOWER = 1;
+
+    /** Compara com TRUNC */
+    public static final int TRUNC = 1 << 1;
+
+    /** Ordenação decrescente */
+    public static final int DESC = 1 << 2;
+
+    /** NULLS FIRST na ordenação */
+    public static final int NULLS_FIRST = 1 << 3;
+
+    /**
+     * Monta a HQL das operações de até dois atributos.
+     */
+    @FunctionalInterface
+    public interface Builder {
+        String build(Class<?> entityClass, Attribute<?, ?> first, Attribute<?, ?> second, int flags);
+    }
+
+    /**
+     * Monta a HQL das operações com condições e ordenação variáveis.
+     */
+    @FunctionalInterface
+    public interface ConditionsBuilder {
+        String build(Class<?> entityClass, Map<SingularAttribute<?, ?>, Object> conditions, Map<SingularAttribute<?, ?>, SortOrder> orderBy, int flags);
+    }
+
+    /**
+     * Limite de HQLs guardadas. Acima disso as HQLs continuam sendo montadas, mas não são guardadas.
+     */
+    private static final int MAX_SIZE = 4096;
+
+    private final boolean enabled;
+
+    private final ConcurrentHashMap<Key, String> templates = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    public QueryTemplateCache() {
+        this(Boolean.parseBoolean(System.getProperty(PROP_ENABLED, "true")));
+    }
+
+    public QueryTemplateCache(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Retorna a HQL de uma operação de até dois atributos, montando-a com {@code builder} apenas na primeira vez.
+     *
+     * @param first
+     *            primeiro atributo da operação, pode ser nulo
+     * @param second
+     *            segundo atributo da operação, pode ser nulo
+     * @param flags
+     *            combinação de {@link #LOWER}, {@link #TRUNC}, {@link #DESC} e {@link #NULLS_FIRST}
+     */
+    public String get(Operation operation, Class<?> entityClass, Attribute<?, ?> first, Attribute<?, ?> second, int flags, Builder builder) {
+        if (!enabled) {
+            return builder.build(entityClass, first, second, flags);
+        }
+        // chave só de consulta: não é guardada, então pode ser eliminada pelo JIT (escape analysis)
+        final String qlString = templates.get(new Key(operation, entityClass, first, second, flags, null));
+        if (qlString != null) {
+            hits.increment();
+            return qlString;
+        }
+        return remember(new Key(operation, entityClass, first, second, flags, null), builder.build(entityClass, first, second, flags));
+    }
+
+    /**
+     * Retorna a HQL de uma operação com condições e ordenação, montando-a com {@code builder} apenas na primeira vez. Entram na chave os atributos das
+     * condições (e se o valor de cada um é nulo) e da ordenação, na ordem de iteração dos mapas.
+     *
+     * @param conditions
+     *            condições, pode ser nulo
+     * @param orderBy
+     *            ordenação, pode ser nulo
+     * @param flags
+     *            combinação de {@link #LOWER}, {@link #TRUNC}, {@link #DESC} e {@link #NULLS_FIRST}
+     */
+    public String getWithConditions(Operation operation, Class<?> entityClass, Map<SingularAttribute<?, ?>, Object> conditions,
+            Map<SingularAttribute<?, ?>, SortOrder> orderBy, int flags, ConditionsBuilder builder) {
+        if (!enabled) {
+            return builder.build(entityClass, conditions, orderBy, flags);
+        }
+        final Key key = new Key(operation, entityClass, null, null, flags, parts(conditions, orderBy));
+        final String qlString = templates.get(key);
+        if (qlString != null) {
+            hits.increment();
+            return qlString;
+        }
+        return remember(key, builder.build(entityClass, conditions, orderBy, flags));
+    }
+
+    private String remember(Key key, String built) {
+        misses.increment();
+        if (templates.size() >= MAX_SIZE) {
+            return built;
+        }
+        final String previous = templates.putIfAbsent(key, built);
+        return previous != null ? previous : built;
+    }
+
+    /**
+     * @return atributo e nulidade de cada condição seguidos de atributo e direção de cada ordenação
+     */
+    private static Object[] parts(Map<SingularAttribute<?, ?>, Object> conditions, Map<SingularAttribute<?, ?>, SortOrder> orderBy) {
+        final int conditionsSize = conditions == null ? 0 : conditions.size();
+        final int orderBySize = orderBy == null ? 0 : orderBy.size();
+        final Object[] parts = new Object[1 + 2 * (conditionsSize + orderBySize)];
+        parts[0] = conditionsSize;
+        int i = 1;
+        if (conditions != null) {
+            for (Map.Entry<SingularAttribute<?, ?>, Object> entry : conditions.entrySet()) {
+                parts[i++] = entry.getKey();
+                parts[i++] = entry.getValue() == null;
+            }
+        }
+        if (orderBy != null) {
+            for (Map.Entry<SingularAttribute<?, ?>, SortOrder> entry : orderBy.entrySet()) {
+                parts[i++] = entry.getKey();
+                parts[i++] = entry.getValue();
+            }
+        }
+        return parts;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return templates.size();
+    }
+
+    @Override
+    public String toString() {
+        return "QueryTemplateCache [enabled=" + enabled + ", size=" + size() + ", hits=" + getHits() + ", misses=" + getMisses() + "]";
+    }
+
+    private static final class Key {
+
+        private final Operation operation;
+
+        private final Class<?> entityClass;
+
+        private final Attribute<?, ?> first;
+
+        private final Attribute<?, ?> second;
+
+        private final int flags;
+
+        private final Object[] parts;
+
+        private final int hash;
+
+        Key(Operation operation, Class<?> entityClass, Attribute<?, ?> first, Attribute<?, ?> second, int flags, Object[] parts) {
+            this.operation = operation;
+            this.entityClass = entityClass;
+            this.first = first;
+            this.second = second;
+            this.flags = flags;
+            this.parts = parts;
+            int h = operation.hashCode();
+            h = 31 * h + entityClass.hashCode();
+            h = 31 * h + Objects.hashCode(first);
+            h = 31 * h + Objects.hashCode(second);
+            h = 31 * h + flags;
+            this.hash = 31 * h + Arrays.hashCode(parts);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            Key other = (Key) obj;
+            // @formatter:off
+            return hash == other.hash && operation == other.operation && entityClass == other.entityClass && first == other.first
+                    && second == other.second && flags == other.flags && Arrays.equals(parts, other.parts);
+            // @formatter:on
+        }
+
+        @Override
+        public String toString() {
+            return operation + " " + entityClass.getName() + " " + first + " " + second + " " + flags + " " + Arrays.toString(parts);
+        }
+
+    }
+
+}
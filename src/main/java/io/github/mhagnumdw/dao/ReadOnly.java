@@ -0,0 +1,30 @@
+package io.github.mhagnumdw.dao;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Executa em modo somente leitura ({@link ReadOnlyScope}): sessão e queries read-only (entidades sem cópia para o dirty checking) e
+ * {@code FlushMode.MANUAL}.
+ * <p>
+ * Uso:
+ * <ul>
+ * <li>no método de um {@link io.github.mhagnumdw.service.Service} (interceptado pelo Guice);</li>
+ * <li>na classe de um controller ({@code @Path}): vale para as requisições GET e HEAD das suas rotas (aplicado pelo
+ * {@link io.github.mhagnumdw.filter.PersistFilter}).</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Ao fim do método as entidades carregadas voltam a ser modificáveis, ver {@link ReadOnlyScope#close()}.
+ * </p>
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+public @interface ReadOnly {
+}
@@ -0,0 +1,123 @@
+package io.github.mhagnumdw.dao;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.Status;
+
+/**
+ * Coloca a sessão do Hibernate em modo somente leitura até o {@link #close()}, que restaura o estado anterior.
+ * <ul>
+ * <li>{@link Session#setDefaultReadOnly(boolean)}: entidades e queries read-only, sem snapshot para o dirty checking;</li>
+ * <li>{@link FlushMode#MANUAL}: nada é enviado ao banco no commit.</li>
+ * </ul>
+ * No {@link #close()} as entidades que ficaram read-only durante o escopo voltam a ser modificáveis ({@link Session#setReadOnly(Object, boolean)}),
+ * então uma alteração seguida de save na mesma sessão é gravada normalmente. Isso custa a cópia do estado que o read-only evitou; quando a sessão é
+ * encerrada logo após o escopo, {@link #openUntilSessionEnd(EntityManager)} dispensa a restauração. Escopos aninhados não fazem nada: o mais
+ * externo restaura.
+ *
+ * <pre>
+ * try (ReadOnlyScope scope = ReadOnlyScope.open(em)) {
+ *     ...
+ * }
+ * </pre>
+ *
+ * @see ReadOnly
+ */
+public final class ReadOnlyScope implements AutoCloseable {
+
+    private static final ReadOnlyScope NESTED = new ReadOnlyScope(null, null, null);
+
+    private final Session session;
+
+    private final FlushMode flushMode;
+
+    /**
+     * Entidades que já eram read-only antes do escopo (ex.: {@code setReadOnly} explícito) e devem continuar assim. Nulo se as entidades não são
+     * restauradas.
+     */
+    private final Set<Object> readOnlyBefore;
+
+    private ReadOnlyScope(Session session, FlushMode flushMode, Set<Object> readOnlyBefore) {
+        this.session = session;
+        this.flushMode = flushMode;
+        this.readOnlyBefore = readOnlyBefore;
+    }
+
+    /**
+     * Entra no modo somente leitura.
+     *
+     * @param em
+     *            {@link EntityManager} da requisição
+     */
+    public static ReadOnlyScope open(EntityManager em) {
+        return open(em, true);
+    }
+
+    /**
+     * Entra no modo somente leitura, sem tornar as entidades modificáveis no {@link #close()}. Para quando a sessão é encerrada logo após o escopo
+     * (ex.: rota inteira ou {@code UnitOfWork} iniciado só para o método), pois não há alteração posterior a preservar.
+     *
+     * @param em
+     *            {@link EntityManager} da requisição
+     */
+    public static ReadOnlyScope openUntilSessionEnd(EntityManager em) {
+        return open(em, false);
+    }
+
+    private static ReadOnlyScope open(EntityManager em, boolean restoreEntities) {
+        final Session session = em.unwrap(Session.class);
+        if (session.isDefaultReadOnly()) {
+            return NESTED;
+        }
+        Set<Object> readOnlyBefore = null;
+        if (restoreEntities) {
+            readOnlyBefore = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Map.Entry<Object, EntityEntry> entry : entityEntries(session)) {
+                if (entry.getValue().getStatus() == Status.READ_ONLY) {
+                    readOnlyBefore.add(entry.getKey());
+                }
+            }
+        }
+        final FlushMode flushMode = session.getHibernateFlushMode();
+        session.setDefaultReadOnly(true);
+        session.setHibernateFlushMode(FlushMode.MANUAL);
+        return new ReadOnlyScope(session, flushMode, readOnlyBefore);
+    }
+
+    private static Map.Entry<Object, EntityEntry>[] entityEntries(Session session) {
+        return session.unwrap(SessionImplementor.class).getPersistenceContext().reentrantSafeEntityEntries();
+    }
+
+    /**
+     * Restaura o modo anterior da sessão e, exceto se aberto com {@link #openUntilSessionEnd(EntityManager)}, torna modificáveis as entidades
+     * carregadas no escopo.
+     */
+    @Override
+    public void close() {
+        if (session == null || !session.isOpen()) {
+            return;
+        }
+        try {
+            if (readOnlyBefore != null) {
+                for (Map.Entry<Object, EntityEntry> entry : entityEntries(session)) {
+                    if (entry.getValue().getStatus() == Status.READ_ONLY && !readOnlyBefore.contains(entry.getKey())) {
+                        session.setReadOnly(entry.getKey(), false);
+                    }
+                }
+            }
+        } finally {
+            session.setHibernateFlushMode(flushMode);
+            session.setDefaultReadOnly(false);
+        }
+    }
+
+}
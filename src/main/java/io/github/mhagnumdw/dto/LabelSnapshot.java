@@ -0,0 +1,60 @@
+package io.github.mhagnumdw.dto;
+
+import java.util.Objects;
+
+import io.github.mhagnumdw.entity.Label;
+
+/**
+ * Cópia imutável de {@link Label}, guardada no cache de leitura do {@code LabelService}: pode ser compartilhada entre threads.
+ */
+public final class LabelSnapshot {
+
+    private final Long id;
+
+    private final String name;
+
+    private final String description;
+
+    public LabelSnapshot(Long id, String name, String description) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+    }
+
+    public static LabelSnapshot of(Label label) {
+        return new LabelSnapshot(label.getId(), label.getName(), label.getDescription());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, description);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof LabelSnapshot))
+            return false;
+        LabelSnapshot other = (LabelSnapshot) obj;
+        return Objects.equals(id, other.id) && Objects.equals(name, other.name) && Objects.equals(description, other.description);
+    }
+
+    @Override
+    public String toString() {
+        return "LabelSnapshot [id=" + id + ", name=" + name + ", description=" + description + "]";
+    }
+
+}
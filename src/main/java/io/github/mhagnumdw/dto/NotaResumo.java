@@ -0,0 +1,12 @@
+package io.github.mhagnumdw.dto;
+
+import io.github.mhagnumdw.entity.Nota;
+
+/**
+ * Projeção de {@link Nota} para listagens: não carrega o conteúdo ({@code value}, LOB) da nota.
+ */
+public interface NotaResumo {
+
+    String getName();
+
+}
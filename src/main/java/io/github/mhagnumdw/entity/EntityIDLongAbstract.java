@@ -6,6 +6,11 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.MappedSuperclass;
 
+/**
+ * Entidade com id {@code Long} gerado por IDENTITY.
+ *
+ * @see EntityIDLongSequenceAbstract alternativa que permite INSERTs em JDBC batch
+ */
 @MappedSuperclass
 public abstract class EntityIDLongAbstract extends EntityGenericAbstract<Long> {
 
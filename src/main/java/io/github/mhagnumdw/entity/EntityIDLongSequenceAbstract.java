@@ -0,0 +1,50 @@
+package io.github.mhagnumdw.entity;
+
+import javax.persistence.Column;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.MappedSuperclass;
+
+import org.hibernate.annotations.GenericGenerator;
+
+/**
+ * Alternativa ao {@link EntityIDLongAbstract} com id {@code Long} gerado por sequence com otimizador <i>pooled</i> ({@link PooledSequenceIdGenerator}).
+ * <p>
+ * Deve ser preferida para entidades inseridas em volume, pois com IDENTITY o Hibernate não consegue agrupar os INSERTs em JDBC batch.
+ * </p>
+ */
+@MappedSuperclass
+public abstract class EntityIDLongSequenceAbstract extends EntityGenericAbstract<Long> {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = PooledSequenceIdGenerator.NAME)
+    @GenericGenerator(name = PooledSequenceIdGenerator.NAME, strategy = "io.github.mhagnumdw.entity.PooledSequenceIdGenerator")
+    @Column(name = "ID", unique = true, updatable = false, nullable = false)
+    private Long id;
+
+    public EntityIDLongSequenceAbstract() {
+
+    }
+
+    public EntityIDLongSequenceAbstract(Long id) {
+        super();
+        this.id = id;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    @Override
+    public boolean isNew() {
+        return getId() == null || getId() == 0;
+    }
+
+}
@@ -11,6 +11,9 @@ import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.NaturalId;
 import org.hibernate.annotations.NaturalIdCache;
 
+import io.github.mhagnumdw.dao.NegativeLookup;
+import io.github.mhagnumdw.dao.QueryCacheable;
+
 @Entity
 //@formatter:off
 @Table(name = "LABEL", uniqueConstraints = {
@@ -20,12 +23,14 @@ import org.hibernate.annotations.NaturalIdCache;
 @Cacheable
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @NaturalIdCache
+@QueryCacheable(region = "query.Label")
 public class Label extends EntityIDLongAbstract implements Comparable<Label> {
 
     private static final long serialVersionUID = 6240931529933224805L;
 
     @NaturalId(mutable = true) // default
     @Column(name = "NAME", nullable = false, unique = true, length = 100)
+    @NegativeLookup(expectedInsertions = 10_000)
     private String name;
 
     @Column(name = "DESCRIPTION", nullable = false, length = 100)
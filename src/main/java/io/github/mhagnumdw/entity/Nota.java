@@ -9,10 +9,13 @@ import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.validator.constraints.NotBlank;
 
+/**
+ * Nota. Inserida em volume, por isso o id vem de sequence ({@link EntityIDLongSequenceAbstract}) e os INSERTs vão em JDBC batch.
+ */
 @Entity
 @Cacheable
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
-public class Nota extends EntityIDLongAbstract {
+public class Nota extends EntityIDLongSequenceAbstract {
 
     @NotBlank
     @Column(name = "NAME", length = 200, nullable = false)
@@ -0,0 +1,19 @@
+package io.github.mhagnumdw.filter;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca um controller ({@code @Path}) que não usa o banco: o {@link PersistFilter} não abre {@code UnitOfWork} para as suas rotas e o acesso ao
+ * {@code EntityManager} pelo {@link io.github.mhagnumdw.dao.GeneralDAO} durante a requisição lança {@link IllegalStateException}.
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface NoPersistence {
+}
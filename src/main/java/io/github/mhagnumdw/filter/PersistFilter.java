@@ -1,48 +1,156 @@
 package io.github.mhagnumdw.filter;
 
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
 import com.google.inject.persist.UnitOfWork;
 
+import io.github.mhagnumdw.dao.ReadOnly;
+import io.github.mhagnumdw.dao.ReadOnlyScope;
 import io.github.mhagnumdw.helper.UnitOfWorkHelper;
+import ro.pippo.controller.Controller;
+import ro.pippo.controller.Path;
+import ro.pippo.core.HttpConstants;
 import ro.pippo.core.route.RouteContext;
 import ro.pippo.core.route.RouteHandler;
 
 /**
  * Filtro criado com base na ideia do filtro {@link com.google.inject.persist.PersistFilter}.
  * <p>
+ * Criado pelo Guice. Envolve o restante da cadeia de rotas ({@link RouteContext#next()}) num {@link UnitOfWork}, encerrado num {@code finally},
+ * inclusive quando a requisição termina com exceção.
+ * </p>
+ * <p>
+ * No modo lazy o {@link UnitOfWork} não é iniciado pelo filtro: o {@code EntityManager} só é aberto quando usado pela primeira vez (o
+ * {@code Provider<EntityManager>} do guice-persist inicia o {@link UnitOfWork} sob demanda) e o filtro apenas o encerra, se tiver sido aberto.
+ * Requisições respondidas sem ir ao banco (cache, validação) não alocam {@code EntityManager}. As rotas dos controllers {@link NoPersistence} são
+ * ignoradas em ambos os modos.
+ * </p>
+ * <p>
+ * As requisições GET e HEAD das rotas dos controllers {@link ReadOnly} são executadas num {@link ReadOnlyScope}, o que abre o
+ * {@code EntityManager} mesmo no modo lazy.
+ * </p>
+ *
+ * <pre>
+ * app.persistence.lazyUnitOfWork : se true usa o modo lazy (default: false)
+ * </pre>
+ * <p>
  * https://github.com/google/guice/wiki/JPA
  * </p>
  */
+@Singleton
 public class PersistFilter implements RouteHandler<RouteContext> {
 
     private static final Logger log = LoggerFactory.getLogger(PersistFilter.class);
 
-    private static final String KEY_UNIT_OF_WORK = "UnitOfWork";
+    public static final String PROP_LAZY = "app.persistence.lazyUnitOfWork";
+
+    private static final String API_URI_PATTERN = "/webapp/api/.*";
+
+    private final Provider<UnitOfWork> unitOfWorkProvider;
+
+    private final boolean lazy;
 
-    public static final PersistFilter BEGIN = new PersistFilter(true);
-    public static final PersistFilter END = new PersistFilter(false);
+    /**
+     * {@link Path} dos controllers {@link NoPersistence}.
+     */
+    private final List<String> noPersistencePaths;
 
-    private final boolean begin;
+    /**
+     * {@link Path} dos controllers {@link ReadOnly}.
+     */
+    private final List<String> readOnlyPaths;
+
+    private final Provider<EntityManager> emProvider;
+
+    @Inject
+    PersistFilter(Provider<UnitOfWork> unitOfWorkProvider, Provider<EntityManager> emProvider, Set<Controller> controllers) {
+        this.unitOfWorkProvider = unitOfWorkProvider;
+        this.emProvider = emProvider;
+        this.lazy = Boolean.getBoolean(PROP_LAZY);
+        this.noPersistencePaths = pathsAnnotatedWith(controllers, NoPersistence.class);
+        this.readOnlyPaths = pathsAnnotatedWith(controllers, ReadOnly.class);
+        log.info("PersistFilter [lazy={}, noPersistencePaths={}, readOnlyPaths={}]", lazy, noPersistencePaths, readOnlyPaths);
+    }
 
-    private PersistFilter(boolean begin) {
-        this.begin = begin;
+    private static List<String> pathsAnnotatedWith(Set<Controller> controllers, Class<? extends Annotation> annotation) {
+        // @formatter:off
+        return controllers.stream()
+                .map(Object::getClass)
+                .filter(type -> type.isAnnotationPresent(annotation) && type.isAnnotationPresent(Path.class))
+                .flatMap(type -> Arrays.stream(type.getAnnotation(Path.class).value()))
+                .map(path -> StringUtils.removeEnd(path, "/"))
+                .collect(Collectors.toList());
+        // @formatter:on
+    }
+
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * @return padrão das rotas em que o filtro deve ser registrado: no modo lazy todas, pois o filtro só fecha o que foi aberto; senão as da API e
+     *         as dos controllers {@link ReadOnly}
+     */
+    public String getUriPattern() {
+        if (lazy) {
+            return "/.*";
+        }
+        if (readOnlyPaths.isEmpty()) {
+            return API_URI_PATTERN;
+        }
+        // ex.: /(?:webapp/api/.*|\Qnotas\E(?:/.*)?)
+        final StringBuilder pattern = new StringBuilder("/(?:").append(API_URI_PATTERN.substring(1));
+        readOnlyPaths.forEach(path -> pattern.append('|').append(Pattern.quote(StringUtils.removeStart(path, "/"))).append("(?:/.*)?"));
+        return pattern.append(')').toString();
     }
 
     @Override
     public void handle(RouteContext routeContext) {
-        if (begin) { // begin
-            final UnitOfWork unitOfWork = UnitOfWorkHelper.begin(log);
-            routeContext.setLocal(KEY_UNIT_OF_WORK, unitOfWork);
-            routeContext.next();
-        } else { // end
-            final UnitOfWork unitOfWork = routeContext.removeLocal(KEY_UNIT_OF_WORK);
-            if (unitOfWork != null) {
-                UnitOfWorkHelper.end(unitOfWork, log);
+        if (!noPersistencePaths.isEmpty() && matches(noPersistencePaths, routeContext.getRequestUri())) {
+            UnitOfWorkHelper.runWithoutPersistence(routeContext::next);
+            return;
+        }
+        final UnitOfWork unitOfWork = lazy ? unitOfWorkProvider.get() : UnitOfWorkHelper.begin(unitOfWorkProvider.get(), log);
+        try {
+            if (!readOnlyPaths.isEmpty() && isRead(routeContext) && matches(readOnlyPaths, routeContext.getRequestUri())) {
+                // a rota inteira: o UnitOfWork termina junto com o escopo
+                try (ReadOnlyScope scope = ReadOnlyScope.openUntilSessionEnd(emProvider.get())) {
+                    routeContext.next();
+                }
+            } else {
+                routeContext.next();
+            }
+        } finally {
+            UnitOfWorkHelper.end(unitOfWork, log); // no modo lazy, sem efeito se o EntityManager não foi aberto
+        }
+    }
+
+    private static boolean isRead(RouteContext routeContext) {
+        final String method = routeContext.getRequestMethod();
+        return HttpConstants.Method.GET.equals(method) || HttpConstants.Method.HEAD.equals(method);
+    }
+
+    private static boolean matches(List<String> paths, String uri) {
+        for (String path : paths) {
+            if (uri.startsWith(path) && (uri.length() == path.length() || uri.charAt(path.length()) == '/')) {
+                return true;
             }
-            // routeContext.next(); // Comentado de propósito pois este DEVE ser o último filtro
         }
+        return false;
     }
 
 }
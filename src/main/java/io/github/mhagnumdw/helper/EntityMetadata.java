@@ -0,0 +1,78 @@
+package io.github.mhagnumdw.helper;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import javax.persistence.EmbeddedId;
+import javax.persistence.Id;
+
+/**
+ * Metadados de uma classe de entidade, calculados uma única vez: o campo do id, já localizado e acessível.
+ * <p>
+ * O id é localizado pelas anotações nos campos ({@link Id}/{@link EmbeddedId}), subindo a hierarquia. Quando não é encontrado (ex.: mapeamento nos
+ * getters) {@link #hasId()} retorna {@code false}.
+ * </p>
+ *
+ * @see EntityMetadataRegistry
+ */
+public final class EntityMetadata {
+
+    private final Class<?> entityClass;
+
+    private final Field idField;
+
+    private EntityMetadata(Class<?> entityClass) {
+        this.entityClass = entityClass;
+        this.idField = findField(entityClass, Id.class, EmbeddedId.class);
+        if (idField != null) {
+            idField.setAccessible(true);
+        }
+    }
+
+    static EntityMetadata create(Class<?> entityClass) {
+        return new EntityMetadata(entityClass);
+    }
+
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    public boolean hasId() {
+        return idField != null;
+    }
+
+    /**
+     * @return o id de {@code entity}; exige {@link #hasId()}
+     */
+    public Object getId(Object entity) {
+        try {
+            return idField.get(entity);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Sem acesso ao campo " + idField, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "EntityMetadata [entityClass=" + entityClass.getName() + ", id=" + (idField == null ? null : idField.getName()) + "]";
+    }
+
+    @SafeVarargs
+    private static Field findField(Class<?> type, Class<? extends Annotation>... annotations) {
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                for (Class<? extends Annotation> annotation : annotations) {
+                    if (field.isAnnotationPresent(annotation)) {
+                        return field;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,102 @@
+package io.github.mhagnumdw.helper;
+
+import java.lang.reflect.Modifier;
+import java.util.Set;
+
+import javax.persistence.Entity;
+
+import org.hibernate.proxy.HibernateProxy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.mhagnumdw.boot.BootReport;
+import io.github.mhagnumdw.entity.EntityGenericAbstract;
+import io.github.mhagnumdw.service.Service;
+import io.github.mhagnumdw.util.ScanUtils;
+
+/**
+ * Registro dos metadados das entidades ({@link EntityMetadata}) e do tipo de entidade de cada {@link Service}.
+ * <p>
+ * Os valores são calculados uma vez por classe e guardados em {@link ClassValue}: a consulta não varre a classe, não aloca e não precisa de lock.
+ * {@link #prime()} calcula tudo na inicialização; classes não escaneadas (ex.: subclasses geradas pelo Guice AOP) são calculadas no primeiro uso.
+ * </p>
+ */
+public final class EntityMetadataRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(EntityMetadataRegistry.class);
+
+    private static final ClassValue<EntityMetadata> ENTITIES = new ClassValue<EntityMetadata>() {
+        @Override
+        protected EntityMetadata computeValue(Class<?> type) {
+            return EntityMetadata.create(type);
+        }
+    };
+
+    private static final ClassValue<Class<?>> SERVICE_ENTITY_TYPES = new ClassValue<Class<?>>() {
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        @Override
+        protected Class<?> computeValue(Class<?> type) {
+            return TypeHelper.getTypeArguments(Service.class, (Class) type).get(0);
+        }
+    };
+
+    private EntityMetadataRegistry() {
+    }
+
+    /**
+     * Calcula os metadados de todas as entidades ({@link EntityGenericAbstract}) e de todos os {@link Service}'s encontrados por {@link ScanUtils}.
+     */
+    @SuppressWarnings("rawtypes")
+    public static void prime() {
+        final Set<Class<? extends EntityGenericAbstract>> entityTypes = BootReport.time(BootReport.SCAN, () -> ScanUtils.getSubTypesOf(EntityGenericAbstract.class));
+        final Set<Class<? extends Service>> serviceTypes = BootReport.time(BootReport.SCAN, () -> ScanUtils.getSubTypesOf(Service.class));
+        int entities = 0;
+        for (Class<? extends EntityGenericAbstract> type : entityTypes) {
+            if (type.isAnnotationPresent(Entity.class)) {
+                log.debug("{}", get(type));
+                entities++;
+            }
+        }
+        int services = 0;
+        for (Class<? extends Service> type : serviceTypes) {
+            if (!Modifier.isAbstract(type.getModifiers())) {
+                getEntityType(type);
+                services++;
+            }
+        }
+        log.info("Metadados calculados: {} entidade(s), {} service(s)", entities, services);
+    }
+
+    /**
+     * @return metadados de {@code entityClass}
+     */
+    public static EntityMetadata get(Class<?> entityClass) {
+        return ENTITIES.get(entityClass);
+    }
+
+    /**
+     * @return o tipo de entidade {@code T} de {@code Service<T>}
+     */
+    @SuppressWarnings("rawtypes")
+    public static Class<?> getEntityType(Class<? extends Service> serviceClass) {
+        return SERVICE_ENTITY_TYPES.get(serviceClass);
+    }
+
+    /**
+     * Retorna os metadados de {@code entity} se o id puder ser lido por eles; não pode quando a entidade é um proxy do Hibernate (o campo não está
+     * inicializado) ou quando o id não é mapeado num campo. Nesses casos use {@link javax.persistence.PersistenceUnitUtil#getIdentifier(Object)}.
+     *
+     * @param entity
+     *            entidade
+     *
+     * @return os metadados ou {@code null}
+     */
+    public static EntityMetadata forIdOf(Object entity) {
+        if (entity instanceof HibernateProxy) {
+            return null;
+        }
+        final EntityMetadata metadata = get(entity.getClass());
+        return metadata.hasId() ? metadata : null;
+    }
+
+}
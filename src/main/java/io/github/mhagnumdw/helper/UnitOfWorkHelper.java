@@ -11,6 +11,8 @@ import io.github.mhagnumdw.GuiceInjector;
  */
 public final class UnitOfWorkHelper {
 
+    private static final ThreadLocal<Boolean> PERSISTENCE_DISABLED = new ThreadLocal<>();
+
     /**
      * Inicia um {@link UnitOfWork}.
      *
@@ -20,12 +22,50 @@ public final class UnitOfWorkHelper {
      * @return {@link UnitOfWork}
      */
     public static UnitOfWork begin(Logger log) {
-        final UnitOfWork unitOfWork = GuiceInjector.get().getInstance(UnitOfWork.class);
+        return begin(GuiceInjector.get().getInstance(UnitOfWork.class), log);
+    }
+
+    /**
+     * Inicia o {@code unitOfWork}. Quando o chamador é criado pelo Guice deve ser usado no lugar de {@link #begin(Logger)}, injetando o
+     * {@code Provider<UnitOfWork>}, pois evita a busca no {@code Injector} global.
+     *
+     * @param unitOfWork
+     *            que deve ser iniciado
+     * @param log
+     *            logger para escrita. É obrigatório.
+     *
+     * @return {@code unitOfWork}
+     */
+    public static UnitOfWork begin(UnitOfWork unitOfWork, Logger log) {
         log.trace("call unitOfWork.begin");
         unitOfWork.begin();
         return unitOfWork;
     }
 
+    /**
+     * Inicia o {@code unitOfWork} se ainda não houver um em andamento na thread.
+     * <p>
+     * O guice-persist não expõe se há um {@link UnitOfWork} em andamento, mas o {@code begin()} falha com {@link IllegalStateException} antes de
+     * abrir qualquer coisa quando já há: esse é o teste.
+     * </p>
+     *
+     * @param unitOfWork
+     *            que deve ser iniciado
+     * @param log
+     *            logger para escrita. É obrigatório.
+     *
+     * @return {@code true} se foi iniciado aqui e deve ser encerrado com {@link #end(UnitOfWork, Logger)} por quem chamou
+     */
+    public static boolean beginIfNotWorking(UnitOfWork unitOfWork, Logger log) {
+        try {
+            begin(unitOfWork, log);
+            return true;
+        } catch (IllegalStateException e) {
+            log.trace("unitOfWork já iniciado");
+            return false;
+        }
+    }
+
     /**
      * Encerra um {@link UnitOfWork}.
      *
@@ -41,4 +81,33 @@ public final class UnitOfWorkHelper {
         }
     }
 
+    /**
+     * Executa {@code action} com a persistência desligada na thread corrente: {@link #checkPersistenceAllowed()} lança exceção.
+     *
+     * @see io.github.mhagnumdw.filter.NoPersistence
+     */
+    public static void runWithoutPersistence(Runnable action) {
+        final Boolean previous = PERSISTENCE_DISABLED.get();
+        PERSISTENCE_DISABLED.set(Boolean.TRUE);
+        try {
+            action.run();
+        } finally {
+            if (previous == null) {
+                PERSISTENCE_DISABLED.remove();
+            } else {
+                PERSISTENCE_DISABLED.set(previous);
+            }
+        }
+    }
+
+    /**
+     * @throws IllegalStateException
+     *             se chamado dentro de {@link #runWithoutPersistence(Runnable)}
+     */
+    public static void checkPersistenceAllowed() {
+        if (PERSISTENCE_DISABLED.get() != null) {
+            throw new IllegalStateException("Acesso ao banco numa requisição de controller @NoPersistence");
+        }
+    }
+
 }
@@ -0,0 +1,45 @@
+package io.github.mhagnumdw.index;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Índice de classes gerado em tempo de compilação pelo {@link ClassIndexProcessor}.
+ * <p>
+ * Para cada tipo de {@link #INDEXED_TYPES} é gerado o arquivo {@code META-INF/class-index/<tipo>} com o nome completo das sub-classes e
+ * implementações (inclusive abstratas), uma por linha. Assim a aplicação não precisa varrer o classpath na inicialização.
+ * </p>
+ *
+ * @see io.github.mhagnumdw.util.ScanUtils
+ */
+public final class ClassIndex {
+
+    /**
+     * Diretório dos arquivos de índice.
+     */
+    public static final String LOCATION = "META-INF/class-index/";
+
+    /**
+     * Tipos indexados (nome completo). Classes de biblioteca são referenciadas pelo nome para não exigir a biblioteca no processador.
+     */
+    // @formatter:off
+    public static final List<String> INDEXED_TYPES = Collections.unmodifiableList(Arrays.asList(
+        "ro.pippo.controller.Controller",
+        "io.github.mhagnumdw.service.Service",
+        "io.github.mhagnumdw.entity.EntityGenericAbstract"
+    ));
+    // @formatter:on
+
+    private ClassIndex() {
+        // não instanciar
+    }
+
+    /**
+     * @return caminho do arquivo de índice de {@code typeName}
+     */
+    public static String resourceName(String typeName) {
+        return LOCATION + typeName;
+    }
+
+}
@@ -0,0 +1,126 @@
+package io.github.mhagnumdw.index;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Processador de anotações que gera o {@link ClassIndex}.
+ * <p>
+ * Não depende de anotações: a cada rodada verifica as classes compiladas e, ao final, grava um arquivo por tipo de {@link ClassIndex#INDEXED_TYPES}.
+ * Em compilações incrementais os nomes já presentes no índice são mantidos enquanto a classe ainda existir e ainda for sub-tipo.
+ * </p>
+ * <p>
+ * Compilado antes do restante do código e executado via {@code <annotationProcessors>} do maven-compiler-plugin (veja o pom.xml), assim o registro
+ * do processador não vai para o artefato de runtime.
+ * </p>
+ */
+@SupportedAnnotationTypes("*")
+public class ClassIndexProcessor extends AbstractProcessor {
+
+    private final Map<String, Set<String>> index = new LinkedHashMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            write();
+        } else {
+            for (Element element : roundEnv.getRootElements()) {
+                collect(element);
+            }
+        }
+        return false; // não "consome" anotações, os demais processadores (ex.: jpamodelgen) continuam rodando
+    }
+
+    private void collect(Element element) {
+        if (element.getKind().isClass()) {
+            final TypeElement type = (TypeElement) element;
+            for (String indexedType : ClassIndex.INDEXED_TYPES) {
+                if (isSubType(type, indexedType)) {
+                    index.computeIfAbsent(indexedType, k -> new TreeSet<>()).add(processingEnv.getElementUtils().getBinaryName(type).toString());
+                }
+            }
+        }
+        for (Element enclosed : element.getEnclosedElements()) {
+            if (enclosed.getKind().isClass()) {
+                collect(enclosed);
+            }
+        }
+    }
+
+    private boolean isSubType(TypeElement type, String superTypeName) {
+        final TypeElement superType = processingEnv.getElementUtils().getTypeElement(superTypeName);
+        if (superType == null || type.equals(superType)) {
+            return false;
+        }
+        final TypeMirror erasure = processingEnv.getTypeUtils().erasure(type.asType());
+        return processingEnv.getTypeUtils().isSubtype(erasure, processingEnv.getTypeUtils().erasure(superType.asType()));
+    }
+
+    private void write() {
+        for (String indexedType : ClassIndex.INDEXED_TYPES) {
+            final Set<String> names = index.computeIfAbsent(indexedType, k -> new TreeSet<>());
+            readPrevious(indexedType, names);
+            if (names.isEmpty()) {
+                continue;
+            }
+            try {
+                final FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", ClassIndex.resourceName(indexedType));
+                try (Writer writer = file.openWriter()) {
+                    for (String name : names) {
+                        writer.write(name);
+                        writer.write('\n');
+                    }
+                }
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Falha ao gravar o índice de " + indexedType + ": " + e);
+            }
+        }
+    }
+
+    /**
+     * Mantém os nomes do índice da compilação anterior que ainda são válidos (compilação incremental).
+     */
+    private void readPrevious(String indexedType, Set<String> names) {
+        final FileObject previous;
+        try {
+            previous = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", ClassIndex.resourceName(indexedType));
+        } catch (IOException | IllegalArgumentException e) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(previous.openInputStream(), StandardCharsets.UTF_8))) {
+            String name;
+            while ((name = reader.readLine()) != null) {
+                final TypeElement type = name.isEmpty() ? null : processingEnv.getElementUtils().getTypeElement(name.replace('$', '.'));
+                if (type != null && isSubType(type, indexedType)) {
+                    names.add(name);
+                }
+            }
+        } catch (IOException e) {
+            // sem índice anterior
+        }
+    }
+
+}
@@ -1,11 +1,28 @@
 package io.github.mhagnumdw.service;
 
+import io.github.mhagnumdw.cache.ReadThroughCache;
+import io.github.mhagnumdw.dto.LabelSnapshot;
 import io.github.mhagnumdw.entity.Label;
 
 public class LabelService extends Service<Label> {
 
+    private static final ReadThroughCache.Spec<Label, LabelSnapshot> READ_THROUGH_CACHE_SPEC = ReadThroughCache.Spec
+            .of("maximumSize=1000,expireAfterWrite=10m,recordStats", LabelSnapshot.class, LabelSnapshot::of);
+
     public Label get(String name) {
         return getBySimpleNaturalId(name);
     }
 
+    /**
+     * @return cópia imutável do label {@code name}, do cache de leitura, ou nulo se o label não existir
+     */
+    public LabelSnapshot getSnapshot(String name) {
+        return getSnapshotBySimpleNaturalId(name, LabelSnapshot.class);
+    }
+
+    @Override
+    protected ReadThroughCache.Spec<Label, ?> getReadThroughCacheSpec() {
+        return READ_THROUGH_CACHE_SPEC;
+    }
+
 }
@@ -0,0 +1,53 @@
+package io.github.mhagnumdw.service;
+
+import javax.persistence.EntityManager;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.persist.UnitOfWork;
+
+import io.github.mhagnumdw.dao.ReadOnly;
+import io.github.mhagnumdw.dao.ReadOnlyScope;
+import io.github.mhagnumdw.helper.UnitOfWorkHelper;
+
+/**
+ * Executa os métodos {@link ReadOnly} dos {@link Service}'s num {@link ReadOnlyScope}.
+ * <p>
+ * Como o {@code JpaLocalTxnInterceptor} do guice-persist: se não houver {@link UnitOfWork} em andamento na thread (ex.: chamada fora de uma
+ * requisição) inicia um e o encerra ao fim do método.
+ * </p>
+ *
+ * @see io.github.mhagnumdw.PippoGuiceModule
+ */
+public class ReadOnlyInterceptor implements MethodInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadOnlyInterceptor.class);
+
+    @Inject
+    private Provider<UnitOfWork> unitOfWorkProvider;
+
+    @Inject
+    private Provider<EntityManager> emProvider;
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        UnitOfWorkHelper.checkPersistenceAllowed();
+        final UnitOfWork unitOfWork = unitOfWorkProvider.get();
+        final boolean didWeStartWork = UnitOfWorkHelper.beginIfNotWorking(unitOfWork, log);
+        final EntityManager em = emProvider.get();
+        // se o UnitOfWork é só deste método a sessão é fechada em seguida: não há por que tornar as entidades modificáveis
+        try (ReadOnlyScope scope = didWeStartWork ? ReadOnlyScope.openUntilSessionEnd(em) : ReadOnlyScope.open(em)) {
+            return invocation.proceed();
+        } finally {
+            if (didWeStartWork) {
+                UnitOfWorkHelper.end(unitOfWork, log);
+            }
+        }
+    }
+
+}
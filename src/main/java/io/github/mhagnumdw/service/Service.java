@@ -1,19 +1,27 @@
 package io.github.mhagnumdw.service;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 import javax.persistence.metamodel.SingularAttribute;
+import javax.transaction.Synchronization;
 
+import org.hibernate.Session;
 import org.hibernate.annotations.NaturalId;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
 
+import io.github.mhagnumdw.cache.ReadThroughCache;
 import io.github.mhagnumdw.dao.DAO;
-import io.github.mhagnumdw.helper.TypeHelper;
+import io.github.mhagnumdw.helper.EntityMetadata;
+import io.github.mhagnumdw.helper.EntityMetadataRegistry;
 import io.github.mhagnumdw.search.SortOrder;
 
 public class Service<T> {
@@ -21,15 +29,32 @@ public class Service<T> {
     @Inject
     private DAO dao;
 
+    @Inject
+    private ReadThroughCache readThroughCache;
+
     @SuppressWarnings("unchecked")
     private Class<T> getEntityType() {
-        return (Class<T>) TypeHelper.getTypeArguments(Service.class, this.getClass()).get(0);
+        return (Class<T>) EntityMetadataRegistry.getEntityType(getClass());
     }
 
     public T getById(Serializable id) {
         return getDAO().getById(id, getEntityType());
     }
 
+    /**
+     * Busca por uma coleção de ids, indo ao banco apenas pelos que não estão na sessão nem no cache de segundo nível.
+     *
+     * @param ids
+     *            chaves primárias
+     *
+     * @return lista na mesma ordem de {@code ids}, sem os ids que não existem
+     *
+     * @see DAO#getByIds(Collection, Class)
+     */
+    public List<T> getByIds(Collection<?> ids) {
+        return getDAO().getByIds(ids, getEntityType());
+    }
+
     public List<T> getAll() {
         return getDAO().getAll(getEntityType());
     }
@@ -42,6 +67,26 @@ public class Service<T> {
         return getDAO().getAll(getEntityType(), orderByAttribute, sortOrder, lowerInOrderBy);
     }
 
+    /**
+     * Busca apenas os atributos {@code attributes} da entidade, sem carregá-la, convertendo cada linha num DTO.
+     *
+     * @see DAO#getProjection(Class, Class, List, Map, Map)
+     */
+    public <D> List<D> getProjection(Class<D> dtoClass, List<? extends SingularAttribute<?, ?>> attributes, Map<SingularAttribute<?, ?>, Object> params,
+            Map<SingularAttribute<?, ?>, SortOrder> orderByAttributes) {
+        return getDAO().getProjection(getEntityType(), dtoClass, attributes, params, orderByAttributes);
+    }
+
+    /**
+     * Igual a {@link #getProjection(Class, List, Map, Map)}, mas os DTOs são lidos sob demanda de um cursor. <b>O {@link Stream} deve ser fechado.</b>
+     *
+     * @see DAO#streamProjection(Class, Class, List, Map, Map, int)
+     */
+    public <D> Stream<D> streamProjection(Class<D> dtoClass, List<? extends SingularAttribute<?, ?>> attributes, Map<SingularAttribute<?, ?>, Object> params,
+            Map<SingularAttribute<?, ?>, SortOrder> orderByAttributes, int fetchSize) {
+        return getDAO().streamProjection(getEntityType(), dtoClass, attributes, params, orderByAttributes, fetchSize);
+    }
+
     /**
      * Persiste a entidade {@code entity} fazendo validações <i>Bean Validation</i>.
      *
@@ -55,6 +100,7 @@ public class Service<T> {
     public void save(T entity) {
         getDAO().persist(entity);
         getDAO().getEntityManager().flush();
+        invalidateReadThroughCache(Collections.singletonList(extractId(entity)));
     }
 
     /**
@@ -69,6 +115,11 @@ public class Service<T> {
     public void save(Collection<T> entities) {
         getDAO().persist(entities);
         getDAO().getEntityManager().flush();
+        final List<Object> ids = new ArrayList<>(entities.size());
+        for (T entity : entities) {
+            ids.add(extractId(entity));
+        }
+        invalidateReadThroughCache(ids);
     }
 
     /**
@@ -80,6 +131,7 @@ public class Service<T> {
     @Transactional
     public void deleteById(Serializable id) {
         getDAO().deleteById(id, getEntityType());
+        invalidateReadThroughCache(Collections.singletonList(id));
     }
 
     /**
@@ -110,6 +162,99 @@ public class Service<T> {
         return getDAO().getReferenceBySimpleNaturalId(getEntityType(), naturalIdValue);
     }
 
+    /**
+     * Cópia imutável (snapshot) da entidade {@code id}, vinda do cache de leitura. Exige que o cache esteja habilitado, ver
+     * {@link #getReadThroughCacheSpec()}.
+     *
+     * @param snapshotType
+     *            classe do snapshot, a mesma de {@link #getReadThroughCacheSpec()}
+     *
+     * @return snapshot ou nulo se a entidade não existir
+     */
+    public <S> S getSnapshotById(Serializable id, Class<S> snapshotType) {
+        return snapshotType.cast(getReadThroughRegion(snapshotType).getById(id, () -> getDAO().getById(id, getEntityType())));
+    }
+
+    /**
+     * Igual a {@link #getSnapshotById(Serializable, Class)}, mas pelo id-natural.
+     *
+     * @see #getBySimpleNaturalId(Object)
+     */
+    public <S> S getSnapshotBySimpleNaturalId(Object naturalIdValue, Class<S> snapshotType) {
+        return snapshotType.cast(getReadThroughRegion(snapshotType).getByNaturalId(naturalIdValue,
+                () -> getDAO().getBySimpleNaturalId(getEntityType(), naturalIdValue)));
+    }
+
+    /**
+     * Habilita o cache de leitura de {@link #getSnapshotById(Serializable, Class)} e {@link #getSnapshotBySimpleNaturalId(Object, Class)}: eviction
+     * (tamanho, expiração) e o snapshot imutável guardado no lugar da entidade. Desabilitado por padrão; para habilitar, sobrescrever retornando uma
+     * constante, ex.:
+     *
+     * <pre>
+     * private static final ReadThroughCache.Spec&lt;Label, LabelSnapshot&gt; SPEC = ReadThroughCache.Spec.of("maximumSize=1000,expireAfterWrite=10m",
+     *         LabelSnapshot.class, LabelSnapshot::of);
+     *
+     * &#64;Override
+     * protected ReadThroughCache.Spec&lt;Label, ?&gt; getReadThroughCacheSpec() {
+     *     return SPEC;
+     * }
+     * </pre>
+     * <p>
+     * O cache é invalidado por {@link #save(Object)}, {@link #save(Collection)} e {@link #deleteById(Serializable)} e, se houver uma transação ativa,
+     * de novo ao fim dela: uma leitura concorrente pode ter carregado o estado anterior ao commit, e num rollback o que foi lido dentro da transação
+     * não vale mais. Escritas feitas por fora do {@link Service} (DAO, HQL) não invalidam o cache, apenas a expiração.
+     * </p>
+     *
+     * @return a configuração ou {@code null} para não usar o cache
+     */
+    protected ReadThroughCache.Spec<T, ?> getReadThroughCacheSpec() {
+        return null;
+    }
+
+    private ReadThroughCache.Region<T, ?> getReadThroughRegion(Class<?> snapshotType) {
+        final ReadThroughCache.Spec<T, ?> spec = getReadThroughCacheSpec();
+        if (spec == null) {
+            throw new IllegalStateException(getClass().getName() + " não habilita o cache de leitura, ver getReadThroughCacheSpec()");
+        }
+        if (spec.getSnapshotType() != snapshotType) {
+            throw new IllegalArgumentException("O snapshot de " + getClass().getName() + " é " + spec.getSnapshotType().getName() + ", não " + snapshotType.getName());
+        }
+        return readThroughCache.region(getEntityType(), spec);
+    }
+
+    private void invalidateReadThroughCache(List<?> ids) {
+        final ReadThroughCache.Spec<T, ?> spec = getReadThroughCacheSpec();
+        if (spec == null) {
+            return;
+        }
+        final ReadThroughCache.Region<T, ?> region = readThroughCache.region(getEntityType(), spec);
+        final Runnable invalidate = () -> ids.forEach(region::invalidate);
+        invalidate.run();
+        final org.hibernate.Transaction transaction = getDAO().getEntityManager().unwrap(Session.class).getTransaction();
+        if (transaction.isActive()) {
+            transaction.registerSynchronization(new Synchronization() {
+
+                @Override
+                public void beforeCompletion() {
+                    // nada a fazer
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate.run();
+                }
+            });
+        }
+    }
+
+    private Object extractId(T entity) {
+        final EntityMetadata metadata = EntityMetadataRegistry.forIdOf(entity);
+        if (metadata != null) {
+            return metadata.getId(entity);
+        }
+        return getDAO().getEntityManager().getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity);
+    }
+
     public DAO getDAO() {
         return dao;
     }
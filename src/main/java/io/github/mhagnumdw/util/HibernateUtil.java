@@ -2,12 +2,17 @@ package io.github.mhagnumdw.util;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import javax.persistence.EntityManager;
 import javax.persistence.Query;
 import javax.persistence.metamodel.SingularAttribute;
 
+import org.apache.commons.lang3.StringUtils;
 import org.hibernate.Session;
+import org.hibernate.engine.spi.NamedQueryDefinition;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 
 /**
  * <pre>
@@ -22,6 +27,12 @@ import org.hibernate.Session;
  */
 public class HibernateUtil {
 
+    private static final Pattern ORDER_BY = Pattern.compile("(?i)\\s+order\\s+by\\s");
+
+    private static final Pattern SIMPLE_SELECT = Pattern.compile("(?is)^select\\s+(distinct\\s+)?([\\w.]+)\\s+(from\\s+.+)$");
+
+    private static final Pattern FETCH = Pattern.compile("(?i)\\bfetch\\b");
+
     // private static final EntityManagerFactory emf = buildEntityManagerFactory();
 
     // private static EntityManagerFactory buildEntityManagerFactory() {
@@ -44,6 +55,101 @@ public class HibernateUtil {
         return em.unwrap(Session.class);
     }
 
+    /**
+     * Verifica se {@code clazz} é uma entidade mapeada (consulta direta no mapa de persisters, sem percorrer o metamodel).
+     *
+     * @param em
+     *            EntityManager
+     * @param clazz
+     *            classe
+     *
+     * @return {@code true} se for uma entidade, {@code false} caso contrário
+     */
+    public static boolean isEntity(EntityManager em, Class<?> clazz) {
+        return em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class).getMetamodel().entityPersisters().containsKey(clazz.getName());
+    }
+
+    /**
+     * Retorna a HQL de uma named query.
+     *
+     * @param em
+     *            EntityManager
+     * @param namedQuery
+     *            nome da named query
+     *
+     * @return a HQL ou {@code null} se a named query não existir ou se for uma query nativa
+     */
+    public static String getNamedQueryString(EntityManager em, String namedQuery) {
+        final SessionFactoryImplementor sessionFactory = em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+        final NamedQueryDefinition definition = sessionFactory.getNamedQueryRepository().getNamedQueryDefinition(namedQuery);
+        return definition == null ? null : definition.getQueryString();
+    }
+
+    /**
+     * Deriva uma HQL de contagem ({@code SELECT COUNT(...)}) a partir de {@code qlString}, removendo o ORDER BY do nível principal (um ORDER BY
+     * dentro de subquery ou de literal é mantido).
+     * <p>
+     * <b>ATENÇÃO: é bem limitado, funciona para queries simples como <i>{@literal FROM Nota n WHERE n.disabled = false ORDER BY n.name}</i> ou
+     * <i>{@literal SELECT DISTINCT n FROM Nota n ...}</i>. Queries com JOIN FETCH ou com projeção de várias colunas não são suportadas.</b>
+     * </p>
+     *
+     * @param qlString
+     *            HQL de origem, pode ser nulo
+     *
+     * @return HQL de contagem ou {@code null} se não for possível derivar
+     */
+    public static String toCountQueryString(String qlString) {
+        if (StringUtils.isBlank(qlString) || FETCH.matcher(qlString).find()) {
+            return null;
+        }
+        final String trimmed = qlString.trim();
+        final int orderBy = indexOfTopLevelOrderBy(trimmed);
+        if (orderBy == -2) {
+            return null;
+        }
+        final String ql = orderBy == -1 ? trimmed : trimmed.substring(0, orderBy).trim();
+        if (StringUtils.startsWithIgnoreCase(ql, "from ")) {
+            return "SELECT COUNT(*) " + ql;
+        }
+        final Matcher matcher = SIMPLE_SELECT.matcher(ql);
+        if (matcher.matches()) {
+            final String distinct = matcher.group(1) != null ? "DISTINCT " : "";
+            return "SELECT COUNT(" + distinct + matcher.group(2) + ") " + matcher.group(3);
+        }
+        return null;
+    }
+
+    /**
+     * @return posição do último ORDER BY fora de parênteses e de literais, -1 se não houver ou -2 se parênteses/aspas não fecharem
+     */
+    private static int indexOfTopLevelOrderBy(String ql) {
+        final Matcher orderBy = ORDER_BY.matcher(ql);
+        int depth = 0;
+        boolean literal = false;
+        int found = -1;
+        for (int i = 0; i < ql.length(); i++) {
+            final char c = ql.charAt(i);
+            if (literal) {
+                if (c == '\'') {
+                    if (i + 1 < ql.length() && ql.charAt(i + 1) == '\'') {
+                        i++; // '' dentro do literal
+                    } else {
+                        literal = false;
+                    }
+                }
+            } else if (c == '\'') {
+                literal = true;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (depth == 0 && Character.isWhitespace(c) && orderBy.region(i, ql.length()).lookingAt()) {
+                found = i;
+            }
+        }
+        return literal || depth != 0 ? -2 : found;
+    }
+
 //    public static Dialect getDialect(EntityManager em) {
 //        return getDialect(getSession(em));
 //    }
@@ -1,7 +1,14 @@
 package io.github.mhagnumdw.util;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -14,9 +21,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.github.mhagnumdw.EmptyRoot;
+import io.github.mhagnumdw.index.ClassIndex;
 
 /**
  * Utilitário para escanear Classes, Métodos, Anotações etc em tempo de execução.
+ * <p>
+ * Os sub-tipos dos tipos de {@link ClassIndex#INDEXED_TYPES} são lidos do índice gerado na compilação; a varredura do classpath com
+ * {@link Reflections} (lenta e que fica em memória) só é feita para os demais tipos ou se o índice não existir/estiver desatualizado.
+ * </p>
  *
  * @see ReflectionUtils
  */
@@ -58,7 +70,8 @@ public class ScanUtils {
      * @return tipos
      */
     public static <T> Set<Class<? extends T>> getSubTypesOf(final Class<T> type) {
-        return getInstance().getSubTypesOf(type);
+        final Set<Class<? extends T>> indexed = readIndex(type);
+        return indexed != null ? indexed : getInstance().getSubTypesOf(type);
     }
 
     /**
@@ -72,10 +85,47 @@ public class ScanUtils {
      * @return tipos
      */
     public static <T> Set<Class<? extends T>> getSubTypesOfAnnotatedWith(final Class<T> type, final Class<? extends Annotation> annotation) {
-        Set<Class<? extends T>> subTypes = getInstance().getSubTypesOf(type);
+        Set<Class<? extends T>> subTypes = getSubTypesOf(type);
         return subTypes.stream().filter(clazz -> clazz.isAnnotationPresent(annotation)).collect(Collectors.toSet());
     }
 
+    /**
+     * Lê do {@link ClassIndex} os sub-tipos de {@code type}.
+     *
+     * @return os sub-tipos ou {@code null} se {@code type} não for indexado, se não houver índice ou se alguma classe do índice não existir mais
+     */
+    private static <T> Set<Class<? extends T>> readIndex(final Class<T> type) {
+        if (!ClassIndex.INDEXED_TYPES.contains(type.getName())) {
+            return null;
+        }
+        final ClassLoader classLoader = type.getClassLoader() != null ? type.getClassLoader() : ClassLoader.getSystemClassLoader();
+        final Set<Class<? extends T>> subTypes = new LinkedHashSet<>();
+        boolean found = false;
+        try {
+            final Enumeration<URL> resources = classLoader.getResources(ClassIndex.resourceName(type.getName()));
+            while (resources.hasMoreElements()) {
+                found = true;
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(resources.nextElement().openStream(), StandardCharsets.UTF_8))) {
+                    String name;
+                    while ((name = reader.readLine()) != null) {
+                        if (!name.isEmpty()) {
+                            subTypes.add(Class.forName(name, false, classLoader).asSubclass(type));
+                        }
+                    }
+                }
+            }
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            log.warn("Índice de {} inválido, escaneando o classpath: {}", type.getName(), e.toString());
+            return null;
+        }
+        if (!found) {
+            log.warn("Índice de {} não encontrado, escaneando o classpath", type.getName());
+            return null;
+        }
+        log.debug("{} sub-tipo(s) de {} lidos do índice", subTypes.size(), type.getName());
+        return subTypes;
+    }
+
     /**
      * Criar a instância de {@link Reflections} para um pacote específico.
      *
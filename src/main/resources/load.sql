@@ -1,4 +1,4 @@
--- Notas
-INSERT INTO PUBLIC.NOTA(VERSION, NAME, VALUE, DISABLED) VALUES (0, 'Test 001', 'Test 001 - value', false);
-INSERT INTO PUBLIC.NOTA(VERSION, NAME, VALUE, DISABLED) VALUES (0, 'Test 002', 'Test 002 - value', false);
-INSERT INTO PUBLIC.NOTA(VERSION, NAME, VALUE, DISABLED) VALUES (0, 'Test 003', 'Test 003 - value', false);
+-- Notas: o id vem da sequence da entidade, cada NEXT VALUE reserva um bloco inteiro do otimizador pooled e não colide com os ids do Hibernate
+INSERT INTO PUBLIC.NOTA(ID, VERSION, NAME, VALUE, DISABLED) VALUES (NEXT VALUE FOR PUBLIC.NOTA_SEQ, 0, 'Test 001', 'Test 001 - value', false);
+INSERT INTO PUBLIC.NOTA(ID, VERSION, NAME, VALUE, DISABLED) VALUES (NEXT VALUE FOR PUBLIC.NOTA_SEQ, 0, 'Test 002', 'Test 002 - value', false);
+INSERT INTO PUBLIC.NOTA(ID, VERSION, NAME, VALUE, DISABLED) VALUES (NEXT VALUE FOR PUBLIC.NOTA_SEQ, 0, 'Test 003', 'Test 003 - value', false);
@@ -0,0 +1,60 @@
+package io.github.mhagnumdw;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+
+import io.github.mhagnumdw.boot.BootReport;
+import ro.pippo.core.Pippo;
+
+/**
+ * Regressão do tempo de inicialização: sobe a aplicação como o {@link PippoLauncher#main(String[])} e falha se o tempo total, do início da JVM
+ * até aceitar conexões, passar de {@value PippoLauncher#PROP_BOOT_BUDGET_MILLIS}.
+ * <p>
+ * O limite vem da propriedade de sistema de mesmo nome, definida no surefire (pom.xml, {@code -Dboot.budget.millis=...} para sobrescrever); sem
+ * ela o teste é ignorado. O surefire roda cada classe de teste numa JVM nova, então o tempo desde o início da JVM é o da inicialização.
+ * </p>
+ */
+public class BootBudgetTest {
+
+    private Pippo pippo;
+
+    @After
+    public void stop() {
+        if (pippo != null) {
+            pippo.stop();
+        }
+    }
+
+    @Test
+    public void bootWithinBudget() throws IOException {
+        final long budgetMillis = Long.getLong(PippoLauncher.PROP_BOOT_BUDGET_MILLIS, 0);
+        assumeTrue(PippoLauncher.PROP_BOOT_BUDGET_MILLIS + " não definido", budgetMillis > 0);
+
+        pippo = PippoLauncher.start();
+        final long totalMillis = BootReport.finish(false);
+
+        // a porta já está aberta
+        final URL url = new URL("http://localhost:" + pippo.getServer().getSettings().getPort() + "/cache/queries");
+        final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            assertEquals(200, connection.getResponseCode());
+        } finally {
+            connection.disconnect();
+        }
+
+        final Map<String, Long> phases = BootReport.getPhaseMillis();
+        assertTrue("Fases: " + phases, phases.containsKey(BootReport.PERSISTENCE) && phases.containsKey(BootReport.SCAN));
+        assertTrue("Inicialização levou " + totalMillis + " ms, acima do limite de " + budgetMillis + " ms\n" + BootReport.report(),
+                totalMillis <= budgetMillis);
+    }
+
+}
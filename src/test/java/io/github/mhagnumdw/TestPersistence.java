@@ -0,0 +1,122 @@
+package io.github.mhagnumdw;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityTransaction;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.google.inject.persist.PersistService;
+import com.google.inject.persist.UnitOfWork;
+import com.google.inject.persist.jpa.JpaPersistModule;
+
+import io.github.mhagnumdw.dao.BloomNegativeLookupCache;
+import io.github.mhagnumdw.dao.DAO;
+import io.github.mhagnumdw.dao.GeneralDAO;
+import io.github.mhagnumdw.dao.NegativeLookupCache;
+
+/**
+ * Unidade de persistência {@value Constantes#PU_NAME} num banco H2 em memória, para os testes e benchmarks que precisam do banco.
+ * <p>
+ * O schema é criado vazio (sem o load.sql) e o banco existe enquanto a JVM estiver de pé.
+ * </p>
+ */
+public final class TestPersistence {
+
+    private final Injector injector;
+
+    private TestPersistence(Injector injector) {
+        this.injector = injector;
+    }
+
+    /**
+     * Cria o injector com o {@link DAO} e inicia a unidade de persistência no banco em memória {@code dbName}.
+     *
+     * @param dbName
+     *            nome do banco, cada nome é um banco distinto
+     * @param properties
+     *            propriedades adicionais da unidade de persistência, pode ser vazio. Ex.: {@code hibernate.ejb.loaded.classes} com a lista de
+     *            entidades que existem só nos testes
+     */
+    public static TestPersistence start(String dbName, Map<String, ?> properties, Module... modules) {
+        final Map<String, Object> unitProperties = new HashMap<>();
+        unitProperties.put("javax.persistence.jdbc.url", "jdbc:h2:mem:" + dbName + ";DB_CLOSE_DELAY=-1");
+        unitProperties.put("hibernate.hbm2ddl.auto", "create");
+        unitProperties.put("hibernate.hbm2ddl.import_files", "");
+        unitProperties.putAll(properties);
+
+        final Module[] all = new Module[modules.length + 1];
+        all[0] = binder -> {
+            binder.install(new JpaPersistModule(Constantes.PU_NAME).properties(unitProperties));
+            binder.bind(DAO.class).to(GeneralDAO.class);
+            binder.bind(NegativeLookupCache.class).to(BloomNegativeLookupCache.class);
+        };
+        System.arraycopy(modules, 0, all, 1, modules.length);
+
+        final Injector injector = Guice.createInjector(all);
+        injector.getInstance(PersistService.class).start();
+        return new TestPersistence(injector);
+    }
+
+    public static TestPersistence start(String dbName) {
+        return start(dbName, new HashMap<>());
+    }
+
+    public Injector getInjector() {
+        return injector;
+    }
+
+    public <T> T getInstance(Class<T> type) {
+        return injector.getInstance(type);
+    }
+
+    public UnitOfWork getUnitOfWork() {
+        return injector.getInstance(UnitOfWork.class);
+    }
+
+    /**
+     * @return {@link EntityManager} do {@link UnitOfWork} da thread, iniciado se necessário
+     */
+    public EntityManager getEntityManager() {
+        return injector.getInstance(EntityManager.class);
+    }
+
+    /**
+     * Executa {@code action} numa transação do {@link EntityManager} da thread.
+     */
+    public void inTransaction(Consumer<EntityManager> action) {
+        final EntityManager em = getEntityManager();
+        final EntityTransaction transaction = em.getTransaction();
+        transaction.begin();
+        try {
+            action.accept(em);
+            transaction.commit();
+        } finally {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+        }
+    }
+
+    /**
+     * Insere {@code count} notas via SQL ({@code SYSTEM_RANGE} do H2), sem passar pelo Hibernate. Uma a cada dez fica desativada. Os ids vêm da
+     * sequence da entidade, então inserções seguintes pelo Hibernate não colidem.
+     */
+    public void insertNotas(int count) {
+        // @formatter:off
+        inTransaction(em -> em.createNativeQuery(
+                "INSERT INTO NOTA (ID, VERSION, NAME, VALUE, DISABLED) "
+                + "SELECT NEXT VALUE FOR NOTA_SEQ, 0, 'Nota ' || X, 'Valor ' || X, MOD(X, 10) = 0 FROM SYSTEM_RANGE(1, " + count + ")")
+                .executeUpdate());
+        // @formatter:on
+    }
+
+    public void stop() {
+        injector.getInstance(PersistService.class).stop();
+    }
+
+}
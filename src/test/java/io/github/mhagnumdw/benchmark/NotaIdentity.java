@@ -0,0 +1,52 @@
+package io.github.mhagnumdw.benchmark;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+
+import io.github.mhagnumdw.entity.EntityIDLongAbstract;
+import io.github.mhagnumdw.entity.Nota;
+
+/**
+ * Mesmas colunas da {@link Nota}, mas com id IDENTITY ({@link EntityIDLongAbstract}), como a {@link Nota} era antes. Existe só para o
+ * {@link NotaInsertBenchmark}.
+ */
+@Entity
+@Table(name = "NOTA_IDENTITY")
+public class NotaIdentity extends EntityIDLongAbstract {
+
+    @Column(name = "NAME", length = 200, nullable = false)
+    private String name;
+
+    @Lob
+    @Column(name = "VALUE", nullable = false)
+    private String value;
+
+    @Column(name = "DISABLED", nullable = false)
+    private boolean disabled;
+
+    public NotaIdentity() {
+        super();
+    }
+
+    public NotaIdentity(String name, String value, boolean disabled) {
+        super();
+        this.name = name;
+        this.value = value;
+        this.disabled = disabled;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public boolean isDisabled() {
+        return disabled;
+    }
+
+}
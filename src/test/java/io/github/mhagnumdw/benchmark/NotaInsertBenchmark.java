@@ -0,0 +1,112 @@
+package io.github.mhagnumdw.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.github.mhagnumdw.TestPersistence;
+import io.github.mhagnumdw.dao.DAO;
+import io.github.mhagnumdw.entity.Nota;
+
+/**
+ * Inserção de {@value #ROWS} notas pelo {@link DAO}: {@link Nota} (id de sequence pooled, INSERTs em JDBC batch) contra {@link NotaIdentity} (id
+ * IDENTITY, um INSERT por vez). O score é em linhas por segundo.
+ * <p>
+ * Os inserts são feitos em blocos de {@value #CHUNK_SIZE} com flush e clear ao fim de cada bloco, como no {@code processAllSave}, numa única
+ * transação. A tabela é esvaziada antes de cada execução.
+ * </p>
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dmain.class=io.github.mhagnumdw.benchmark.NotaInsertBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class NotaInsertBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    /** Igual ao hibernate.jdbc.batch_size do persistence.xml */
+    private static final int CHUNK_SIZE = 50;
+
+    @Param({ "sequence", "identity" })
+    public String strategy;
+
+    private TestPersistence persistence;
+
+    private DAO dao;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        persistence = TestPersistence.start("nota-insert-" + strategy,
+                Collections.singletonMap("hibernate.ejb.loaded.classes", Collections.singletonList(NotaIdentity.class)));
+        persistence.getUnitOfWork().begin();
+        dao = persistence.getInstance(DAO.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void truncate() {
+        final String table = "sequence".equals(strategy) ? "NOTA" : "NOTA_IDENTITY";
+        persistence.inTransaction(em -> em.createNativeQuery("TRUNCATE TABLE " + table).executeUpdate());
+        persistence.getEntityManager().clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        persistence.getUnitOfWork().end();
+        persistence.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void insert() {
+        final boolean sequence = "sequence".equals(strategy);
+        persistence.inTransaction(em -> {
+            final List<Object> chunk = new ArrayList<>(CHUNK_SIZE);
+            for (int i = 1; i <= ROWS; i++) {
+                chunk.add(sequence ? new Nota("Nota " + i, "Valor " + i, i % 10 == 0) : new NotaIdentity("Nota " + i, "Valor " + i, i % 10 == 0));
+                if (chunk.size() == CHUNK_SIZE) {
+                    endChunk(em, chunk);
+                }
+            }
+            endChunk(em, chunk);
+        });
+    }
+
+    private void endChunk(EntityManager em, List<Object> chunk) {
+        dao.persist(chunk);
+        em.flush();
+        em.clear();
+        chunk.clear();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(NotaInsertBenchmark.class.getSimpleName()).build()).run();
+    }
+
+}
@@ -0,0 +1,113 @@
+package io.github.mhagnumdw.benchmark;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.metamodel.SingularAttribute;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.github.mhagnumdw.PaginationScrollStatus;
+import io.github.mhagnumdw.TestPersistence;
+import io.github.mhagnumdw.dao.DAO;
+import io.github.mhagnumdw.entity.Nota;
+import io.github.mhagnumdw.entity.Nota_;
+import io.github.mhagnumdw.search.SortOrder;
+import io.github.mhagnumdw.util.HibernateUtil;
+import io.github.mhagnumdw.util.Pair;
+
+/**
+ * Custo da primeira página do {@link DAO#getPaged} conforme a tabela NOTA cresce: total por {@code SELECT COUNT(*)} (atual) contra percorrer o
+ * resultado inteiro com {@code ScrollableResults.last()} (como era antes).
+ * <p>
+ * Esperado: {@code countQuery} praticamente constante entre os tamanhos, {@code scrollToLast} crescendo com a tabela.
+ * </p>
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dmain.class=io.github.mhagnumdw.benchmark.PagedCountBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PagedCountBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({ "1000", "10000", "100000" })
+    public int rows;
+
+    private TestPersistence persistence;
+
+    private DAO dao;
+
+    private Map<SingularAttribute<?, ?>, Object> params;
+
+    private Map<SingularAttribute<?, ?>, SortOrder> orderBy;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        persistence = TestPersistence.start("paged-count-" + rows);
+        persistence.insertNotas(rows);
+        persistence.getUnitOfWork().begin();
+        dao = persistence.getInstance(DAO.class);
+        params = Collections.singletonMap(Nota_.disabled, false);
+        orderBy = Collections.singletonMap(Nota_.name, SortOrder.ASC);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        persistence.getUnitOfWork().end();
+        persistence.stop();
+    }
+
+    @Benchmark
+    public List<Nota> countQuery() {
+        final Pair<List<Nota>, PaginationScrollStatus> page = dao.getPaged(Nota.class, params, orderBy, false, 0, PAGE_SIZE);
+        persistence.getEntityManager().clear();
+        return page.getFirst();
+    }
+
+    @Benchmark
+    public List<Nota> scrollToLast() {
+        final EntityManager em = persistence.getEntityManager();
+        final org.hibernate.query.Query<Nota> query = HibernateUtil.getSession(em).createQuery("FROM Nota e WHERE e.disabled = :disabled ORDER BY e.name", Nota.class);
+        query.setParameter("disabled", false);
+        final int total;
+        try (ScrollableResults scroll = query.scroll(ScrollMode.FORWARD_ONLY)) {
+            total = scroll.last() ? scroll.getRowNumber() + 1 : 0;
+        }
+        final PaginationScrollStatus pss = new PaginationScrollStatus(0, PAGE_SIZE, total);
+        final List<Nota> page = query.setFirstResult(pss.getOffset()).setMaxResults(pss.getPageSize()).getResultList();
+        em.clear();
+        return page;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PagedCountBenchmark.class.getSimpleName()).build()).run();
+    }
+
+}
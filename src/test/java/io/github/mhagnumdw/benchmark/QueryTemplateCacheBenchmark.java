@@ -0,0 +1,107 @@
+package io.github.mhagnumdw.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.github.mhagnumdw.TestPersistence;
+import io.github.mhagnumdw.dao.DAO;
+import io.github.mhagnumdw.dao.QueryTemplateCache;
+import io.github.mhagnumdw.entity.Nota;
+import io.github.mhagnumdw.entity.Nota_;
+
+/**
+ * Custo por chamada do {@link DAO} com e sem o {@link QueryTemplateCache} ({@value QueryTemplateCache#PROP_ENABLED}).
+ * <p>
+ * {@code createQuery} isola a parte que o cache afeta (montar a HQL e obter o plano do Hibernate, sem ir ao banco); os demais são chamadas reais do
+ * DAO no H2 em memória. Rodar com o profiler de GC (já incluído no {@code main}) e comparar {@code gc.alloc.rate.norm} (bytes por chamada) além do
+ * tempo.
+ * </p>
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dmain.class=io.github.mhagnumdw.benchmark.QueryTemplateCacheBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryTemplateCacheBenchmark {
+
+    private static final int ROWS = 1000;
+
+    @Param({ "true", "false" })
+    public boolean templates;
+
+    private TestPersistence persistence;
+
+    private DAO dao;
+
+    private QueryTemplateCache queryTemplates;
+
+    private EntityManager em;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty(QueryTemplateCache.PROP_ENABLED, String.valueOf(templates));
+        persistence = TestPersistence.start("query-templates-" + templates);
+        persistence.insertNotas(ROWS);
+        persistence.getUnitOfWork().begin();
+        dao = persistence.getInstance(DAO.class);
+        queryTemplates = persistence.getInstance(QueryTemplateCache.class);
+        em = persistence.getEntityManager();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println(queryTemplates);
+        persistence.getUnitOfWork().end();
+        persistence.stop();
+    }
+
+    @Benchmark
+    public TypedQuery<Nota> createQuery() {
+        // mesma HQL do DAO.getByDirectAttribute
+        final String qlString = queryTemplates.get(QueryTemplateCache.Operation.GET_BY_ATTRIBUTE, Nota.class, Nota_.name, null, 0,
+                (entityClass, attribute, second, flags) -> "FROM " + entityClass.getName() + " e WHERE e." + attribute.getName() + " = :value");
+        return em.createQuery(qlString, Nota.class);
+    }
+
+    @Benchmark
+    public Nota singleResultByAttribute() {
+        final Nota nota = dao.getSingleResultByDirectAttribute(Nota_.name, "Nota 500", Nota.class);
+        em.clear();
+        return nota;
+    }
+
+    @Benchmark
+    public boolean existByAttribute() {
+        return dao.exist(Nota.class, Nota_.name, "Nota 500", false);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(QueryTemplateCacheBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build()).run();
+    }
+
+}
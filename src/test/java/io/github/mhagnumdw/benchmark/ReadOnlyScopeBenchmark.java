@@ -0,0 +1,96 @@
+package io.github.mhagnumdw.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.github.mhagnumdw.TestPersistence;
+import io.github.mhagnumdw.dao.DAO;
+import io.github.mhagnumdw.dao.ReadOnlyScope;
+import io.github.mhagnumdw.entity.Nota;
+
+/**
+ * Custo de uma listagem ({@link DAO#getAll(Class)} de {@value #ROWS} notas) sem o {@link ReadOnlyScope} ({@code none}), com o escopo dos
+ * métodos {@code @ReadOnly} dentro de uma requisição ({@code restore}: o {@code close()} torna as entidades modificáveis de novo) e com o escopo
+ * da rota inteira ({@code untilSessionEnd}).
+ * <p>
+ * CPU: o tempo por listagem. Heap: {@code gc.alloc.rate.norm} (bytes alocados por listagem, do profiler de GC já incluído no {@code main}), onde
+ * aparece a cópia do estado de cada entidade para o dirty checking que o modo read-only evita durante o escopo.
+ * </p>
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dmain.class=io.github.mhagnumdw.benchmark.ReadOnlyScopeBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadOnlyScopeBenchmark {
+
+    private static final int ROWS = 1000;
+
+    @Param({ "none", "restore", "untilSessionEnd" })
+    public String scope;
+
+    private TestPersistence persistence;
+
+    private DAO dao;
+
+    private EntityManager em;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        persistence = TestPersistence.start("read-only-scope-" + scope);
+        persistence.insertNotas(ROWS);
+        persistence.getUnitOfWork().begin();
+        dao = persistence.getInstance(DAO.class);
+        em = persistence.getEntityManager();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        persistence.getUnitOfWork().end();
+        persistence.stop();
+    }
+
+    @Benchmark
+    public List<Nota> getAll() {
+        final List<Nota> notas;
+        if ("none".equals(scope)) {
+            notas = dao.getAll(Nota.class);
+        } else {
+            try (ReadOnlyScope readOnly = "restore".equals(scope) ? ReadOnlyScope.open(em) : ReadOnlyScope.openUntilSessionEnd(em)) {
+                notas = dao.getAll(Nota.class);
+            }
+        }
+        em.clear();
+        return notas;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ReadOnlyScopeBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build()).run();
+    }
+
+}
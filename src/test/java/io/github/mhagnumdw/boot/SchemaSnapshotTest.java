@@ -0,0 +1,32 @@
+package io.github.mhagnumdw.boot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class SchemaSnapshotTest {
+
+    private static File databaseFile(String url) {
+        return SchemaSnapshot.getDatabaseFile(Collections.singletonMap("javax.persistence.jdbc.url", url));
+    }
+
+    @Test
+    public void fileDatabase() {
+        assertEquals(new File("./db/h2/inject/inject"), databaseFile("jdbc:h2:./db/h2/inject/inject;AUTO_SERVER=true"));
+        assertEquals(new File("/var/data/app"), databaseFile("jdbc:h2:file:/var/data/app"));
+        assertEquals(new File(System.getProperty("user.home") + "/app"), databaseFile("jdbc:h2:~/app;MODE=Oracle"));
+    }
+
+    @Test
+    public void notAFileDatabase() {
+        assertNull(databaseFile("jdbc:h2:mem:test;DB_CLOSE_DELAY=-1"));
+        assertNull(databaseFile("jdbc:h2:tcp://localhost/~/app"));
+        assertNull(databaseFile("jdbc:postgresql://localhost/app"));
+        assertNull(SchemaSnapshot.getDatabaseFile(Collections.emptyMap()));
+    }
+
+}
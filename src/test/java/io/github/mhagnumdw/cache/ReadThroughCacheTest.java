@@ -0,0 +1,90 @@
+package io.github.mhagnumdw.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.github.mhagnumdw.dto.LabelSnapshot;
+import io.github.mhagnumdw.entity.Label;
+
+public class ReadThroughCacheTest {
+
+    private static final ReadThroughCache.Spec<Label, LabelSnapshot> SPEC = ReadThroughCache.Spec.of("maximumSize=2", LabelSnapshot.class, LabelSnapshot::of);
+
+    private ReadThroughCache.Region<Label, LabelSnapshot> region;
+
+    private AtomicInteger loads;
+
+    @Before
+    public void setUp() {
+        region = new ReadThroughCache().region(Label.class, SPEC);
+        loads = new AtomicInteger();
+    }
+
+    private Label load(long id, String name) {
+        loads.incrementAndGet();
+        final Label label = new Label(name, "descrição de " + name);
+        label.setId(id);
+        return label;
+    }
+
+    @Test
+    public void hitReturnsSameSnapshotWithoutLoading() {
+        final LabelSnapshot first = region.getById(1L, () -> load(1L, "a"));
+        final LabelSnapshot second = region.getById(1L, () -> load(1L, "b"));
+
+        assertSame(first, second);
+        assertEquals("a", second.getName());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void invalidateReloadsIdAndAllNaturalIds() {
+        region.getById(1L, () -> load(1L, "a"));
+        region.getByNaturalId("x", () -> load(2L, "x"));
+
+        region.invalidate(1L);
+
+        assertEquals("a2", region.getById(1L, () -> load(1L, "a2")).getName());
+        assertEquals("x2", region.getByNaturalId("x", () -> load(2L, "x2")).getName());
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    public void loadRacingAnInvalidationIsNotCached() {
+        region.getById(1L, () -> {
+            region.invalidate(1L);
+            return load(1L, "antigo");
+        });
+
+        assertEquals("novo", region.getById(1L, () -> load(1L, "novo")).getName());
+    }
+
+    @Test
+    public void absentIsNotCached() {
+        assertNull(region.getById(1L, () -> null));
+        assertEquals("a", region.getById(1L, () -> load(1L, "a")).getName());
+    }
+
+    @Test
+    public void evictsBeyondMaximumSize() {
+        for (long id = 1; id <= 10; id++) {
+            final long current = id;
+            region.getById(current, () -> load(current, "l" + current));
+        }
+        assertEquals(2, region.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsAnotherSnapshotTypeForTheSameEntity() {
+        final ReadThroughCache cache = new ReadThroughCache();
+        cache.region(Label.class, SPEC);
+        cache.region(Label.class, ReadThroughCache.Spec.of("maximumSize=2", String.class, Label::getName));
+    }
+
+}
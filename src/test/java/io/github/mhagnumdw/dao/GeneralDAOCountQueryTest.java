@@ -0,0 +1,113 @@
+package io.github.mhagnumdw.dao;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.SingularAttribute;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.github.mhagnumdw.PaginationScrollStatus;
+import io.github.mhagnumdw.TestPersistence;
+import io.github.mhagnumdw.entity.Nota;
+import io.github.mhagnumdw.entity.Nota_;
+import io.github.mhagnumdw.search.SortOrder;
+import io.github.mhagnumdw.util.Pair;
+
+/**
+ * Total das buscas paginadas do {@link GeneralDAO}: COUNT derivado da busca e named query {@code <nome>.count}.
+ */
+public class GeneralDAOCountQueryTest {
+
+    private static TestPersistence persistence;
+
+    private DAO dao;
+
+    @BeforeClass
+    public static void startPersistence() {
+        persistence = TestPersistence.start("count-query");
+        persistence.getUnitOfWork().begin();
+        try {
+            // 3 ativas e 2 desativadas
+            // @formatter:off
+            final List<Nota> notas = Arrays.asList(
+                    new Nota("C", "c", false),
+                    new Nota("A", "a", false),
+                    new Nota("B", "b", false),
+                    new Nota("D", "d", true),
+                    new Nota("E", "e", true));
+            // @formatter:on
+            persistence.inTransaction(em -> persistence.getInstance(DAO.class).persist(notas));
+
+            final EntityManager em = persistence.getEntityManager();
+            final EntityManagerFactory emf = em.getEntityManagerFactory();
+            final String ativas = "FROM Nota n WHERE n.disabled = :disabled ORDER BY n.name";
+            emf.addNamedQuery("Nota.porSituacao", em.createQuery(ativas));
+            emf.addNamedQuery("Nota.porSituacaoComContagem", em.createQuery(ativas));
+            // conta todas, ignorando o filtro: prova que é esta a query usada e não a derivada
+            emf.addNamedQuery("Nota.porSituacaoComContagem" + DAO.COUNT_QUERY_SUFFIX, em.createQuery("SELECT COUNT(n) FROM Nota n WHERE n.disabled = :disabled OR n.disabled <> :disabled"));
+        } finally {
+            persistence.getUnitOfWork().end();
+        }
+    }
+
+    @AfterClass
+    public static void stopPersistence() {
+        persistence.stop();
+    }
+
+    @Before
+    public void beginUnitOfWork() {
+        persistence.getUnitOfWork().begin();
+        dao = persistence.getInstance(DAO.class);
+    }
+
+    @After
+    public void endUnitOfWork() {
+        persistence.getUnitOfWork().end();
+    }
+
+    @Test
+    public void totalIgnoresPageAndOrder() {
+        final Map<SingularAttribute<?, ?>, Object> params = Collections.singletonMap(Nota_.disabled, false);
+        final Map<SingularAttribute<?, ?>, SortOrder> orderBy = Collections.singletonMap(Nota_.name, SortOrder.DESC);
+
+        final Pair<List<Nota>, PaginationScrollStatus> page = dao.getPaged(Nota.class, params, orderBy, false, 1, 2);
+
+        assertEquals(3, page.getSecond().getTotalDeRegistros());
+        assertEquals(1, page.getFirst().size());
+        assertEquals("A", page.getFirst().get(0).getName());
+    }
+
+    @Test
+    public void totalWithoutFilter() {
+        assertEquals(5, dao.getPaged(Nota.class, 0, 2).getSecond().getTotalDeRegistros());
+    }
+
+    @Test
+    public void namedQueryCountIsDerivedWithoutOrderBy() {
+        final Pair<List<Nota>, PaginationScrollStatus> page = dao.getPaged(Nota.class, "Nota.porSituacao", Collections.singletonMap("disabled", false), 0, 2);
+
+        assertEquals(3, page.getSecond().getTotalDeRegistros());
+        assertEquals(Arrays.asList("A", "B"), Arrays.asList(page.getFirst().get(0).getName(), page.getFirst().get(1).getName()));
+    }
+
+    @Test
+    public void declaredCountNamedQueryWins() {
+        final Pair<List<Nota>, PaginationScrollStatus> page = dao.getPaged(Nota.class, "Nota.porSituacaoComContagem", Collections.singletonMap("disabled", true), 0, 10);
+
+        assertEquals(5, page.getSecond().getTotalDeRegistros());
+        assertEquals(2, page.getFirst().size());
+    }
+
+}
@@ -0,0 +1,69 @@
+package io.github.mhagnumdw.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * Derivação da HQL de contagem: {@link HibernateUtil#toCountQueryString(String)}.
+ */
+public class HibernateUtilTest {
+
+    @Test
+    public void fromQueryGetsCountStar() {
+        assertEquals("SELECT COUNT(*) FROM Nota n WHERE n.disabled = false", HibernateUtil.toCountQueryString("FROM Nota n WHERE n.disabled = false"));
+    }
+
+    @Test
+    public void topLevelOrderByIsStripped() {
+        assertEquals("SELECT COUNT(*) FROM Nota n WHERE n.disabled = false",
+                HibernateUtil.toCountQueryString("  FROM Nota n WHERE n.disabled = false ORDER BY n.name DESC, n.id  "));
+        assertEquals("SELECT COUNT(*) FROM Nota n", HibernateUtil.toCountQueryString("FROM Nota n\n\torder\nby n.name"));
+    }
+
+    @Test
+    public void selectOfTheEntityCountsTheAlias() {
+        assertEquals("SELECT COUNT(n) FROM Nota n WHERE n.disabled = :disabled",
+                HibernateUtil.toCountQueryString("SELECT n FROM Nota n WHERE n.disabled = :disabled ORDER BY n.name"));
+        assertEquals("SELECT COUNT(n.label.id) from Nota n", HibernateUtil.toCountQueryString("select n.label.id from Nota n order by n.id"));
+    }
+
+    @Test
+    public void distinctIsKept() {
+        assertEquals("SELECT COUNT(DISTINCT n) FROM Nota n JOIN n.labels l", HibernateUtil.toCountQueryString("SELECT DISTINCT n FROM Nota n JOIN n.labels l ORDER BY n.name"));
+    }
+
+    @Test
+    public void orderByInsideSubqueryIsKept() {
+        // @formatter:off
+        assertEquals("SELECT COUNT(*) FROM Nota n WHERE n.id IN (SELECT m.id FROM Nota m ORDER BY m.name)",
+                HibernateUtil.toCountQueryString("FROM Nota n WHERE n.id IN (SELECT m.id FROM Nota m ORDER BY m.name) ORDER BY n.id"));
+        assertEquals("SELECT COUNT(*) FROM Nota n WHERE n.id IN (SELECT m.id FROM Nota m ORDER BY m.name)",
+                HibernateUtil.toCountQueryString("FROM Nota n WHERE n.id IN (SELECT m.id FROM Nota m ORDER BY m.name)"));
+        // @formatter:on
+    }
+
+    @Test
+    public void orderByInsideLiteralIsKept() {
+        assertEquals("SELECT COUNT(*) FROM Nota n WHERE n.name = ' order by x'", HibernateUtil.toCountQueryString("FROM Nota n WHERE n.name = ' order by x'"));
+        assertEquals("SELECT COUNT(*) FROM Nota n WHERE n.name = 'it''s order by (x'",
+                HibernateUtil.toCountQueryString("FROM Nota n WHERE n.name = 'it''s order by (x' ORDER BY n.name"));
+    }
+
+    @Test
+    public void unsupportedQueriesReturnNull() {
+        assertNull(HibernateUtil.toCountQueryString(null));
+        assertNull(HibernateUtil.toCountQueryString("   "));
+        assertNull(HibernateUtil.toCountQueryString("FROM Nota n JOIN FETCH n.labels"));
+        assertNull(HibernateUtil.toCountQueryString("SELECT n.id, n.name FROM Nota n"));
+        assertNull(HibernateUtil.toCountQueryString("SELECT new io.github.mhagnumdw.dto.NotaResumo(n.id, n.name) FROM Nota n"));
+    }
+
+    @Test
+    public void unbalancedQueriesReturnNull() {
+        assertNull(HibernateUtil.toCountQueryString("FROM Nota n WHERE n.id IN (SELECT m.id FROM Nota m ORDER BY m.name"));
+        assertNull(HibernateUtil.toCountQueryString("FROM Nota n WHERE n.name = 'x ORDER BY n.name"));
+    }
+
+}